@@ -21,9 +21,11 @@ import java.util.Objects;
 import org.eclipse.jdt.annotation.Nullable;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.tasks.TaskProvider;
 
 import de.carne.gradle.plugin.java.ext.JavaToolsExtension;
 import de.carne.gradle.plugin.java.task.NpmBuildTask;
+import de.carne.gradle.plugin.java.task.CheckAllDependencyVersionsTask;
 import de.carne.gradle.plugin.java.task.CheckDependencyVersionsTask;
 import de.carne.gradle.plugin.java.task.DraftGitHubReleaseTask;
 import de.carne.gradle.plugin.java.task.GenerateI18NTask;
@@ -41,8 +43,9 @@ public class JavaToolsPlugin implements Plugin<Project> {
 	 */
 	public static final String JAVA_TOOLS_PLUGIN_NAME = "de.carne.java-tools";
 
-	private final Late<GenerateI18NTask> generateI18NTaskHolder = new Late<>();
+	private final Late<TaskProvider<GenerateI18NTask>> generateI18NTaskHolder = new Late<>();
 	private final Late<CheckDependencyVersionsTask> checkDependencyVersionsTaskHolder = new Late<>();
+	private final Late<CheckAllDependencyVersionsTask> checkAllDependencyVersionsTaskHolder = new Late<>();
 	private final Late<DraftGitHubReleaseTask> draftGitHubReleaseTaskHolder = new Late<>();
 	private final Late<NpmInstallTask> npmInstallTaskHolder = new Late<>();
 	private final Late<NpmBuildTask> npmBuildTaskHolder = new Late<>();
@@ -55,8 +58,12 @@ public class JavaToolsPlugin implements Plugin<Project> {
 		// Create extension object
 		JavaToolsExtension.create(project);
 		// Create task objects
-		this.generateI18NTaskHolder.set(GenerateI18NTask.create(project)).apply(project);
+		this.generateI18NTaskHolder.set(GenerateI18NTask.register(project));
 		this.checkDependencyVersionsTaskHolder.set(CheckDependencyVersionsTask.create(project)).apply(project);
+		if (project.equals(project.getRootProject())) {
+			this.checkAllDependencyVersionsTaskHolder.set(CheckAllDependencyVersionsTask.create(project))
+					.apply(project);
+		}
 		this.draftGitHubReleaseTaskHolder.set(DraftGitHubReleaseTask.create(project)).apply(project);
 		this.npmInstallTaskHolder.set(NpmInstallTask.create(project)).apply(project);
 		this.npmBuildTaskHolder.set(NpmBuildTask.create(project)).apply(project);
@@ -69,8 +76,9 @@ public class JavaToolsPlugin implements Plugin<Project> {
 		Objects.requireNonNull(project);
 
 		// Finalize tasks setup
-		this.generateI18NTaskHolder.get().afterEvaluate(project);
+		GenerateI18NTask.afterEvaluate(project, this.generateI18NTaskHolder.get());
 		this.checkDependencyVersionsTaskHolder.get().afterEvaluate(project);
+		this.checkAllDependencyVersionsTaskHolder.getOptional().ifPresent(task -> task.afterEvaluate(project));
 		this.draftGitHubReleaseTaskHolder.get().afterEvaluate(project);
 		this.npmInstallTaskHolder.get().afterEvaluate(project);
 		this.npmBuildTaskHolder.get().afterEvaluate(project);
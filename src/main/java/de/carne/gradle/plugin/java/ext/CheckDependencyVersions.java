@@ -0,0 +1,517 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.ext;
+
+import java.io.File;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.Project;
+
+/**
+ * Configuration object for {@linkplain de.carne.gradle.plugin.java.task.CheckDependencyVersionsTask}.
+ * <p>
+ * build.gradle:
+ *
+ * <pre>
+ * javatools {
+ *  checkDependencyVersions {
+ *   ...
+ *  }
+ * }
+ * </pre>
+ */
+public class CheckDependencyVersions {
+
+	/**
+	 * Lookup engine resolving the latest dependency versions via Gradle's dependency resolution.
+	 */
+	public static final String LOOKUP_ENGINE_GRADLE = "gradle";
+
+	/**
+	 * Lookup engine fetching the latest dependency versions directly from the Maven repositories' metadata files.
+	 */
+	public static final String LOOKUP_ENGINE_MAVEN = "maven";
+
+	private static final String REPORT_DIR_DEFAULT = "reports/dependency-versions";
+	private static final String VERSION_CATALOG_FILE_DEFAULT = "gradle/libs.versions.toml";
+
+	private final Project project;
+
+	private int cacheTtlParam = 24;
+	private File cacheDirParam;
+	private boolean offlineParam = false;
+	private int maxParallelLookupsParam = 4;
+	private String lookupEngineParam = LOOKUP_ENGINE_GRADLE;
+	private boolean transitiveParam = false;
+	private boolean jsonReportParam = false;
+	private boolean csvReportParam = false;
+	@Nullable
+	private File reportDirParam = null;
+	@Nullable
+	private File baselineFileParam = null;
+	@Nullable
+	private File versionCatalogFileParam = null;
+
+	/**
+	 * Constructs a new {@linkplain CheckDependencyVersions} instance.
+	 *
+	 * @param project the owning {@linkplain Project}.
+	 */
+	public CheckDependencyVersions(Project project) {
+		this.project = project;
+		this.cacheDirParam = getCacheDirDefault(this.project);
+	}
+
+	private static File getCacheDirDefault(Project project) {
+		return new File(project.getGradle().getGradleUserHomeDir(), "caches/de.carne.java-tools");
+	}
+
+	/**
+	 * Gets the time (in hours) a looked up latest dependency version is cached before it is looked up again.
+	 * <p>
+	 * Caching is enabled by default, hence a reported latest version may be up to 24 hours old.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  cacheTtl = 24 // default: 24 (0 disables caching)
+	 * }
+	 * </pre>
+	 *
+	 * @return the time (in hours) a looked up latest dependency version is cached.
+	 */
+	public int getCacheTtl() {
+		return this.cacheTtlParam;
+	}
+
+	/**
+	 * Sets the time (in hours) a looked up latest dependency version is cached before it is looked up again.
+	 * <p>
+	 * Caching is enabled by default, hence a reported latest version may be up to 24 hours old.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  cacheTtl = 24 // default: 24 (0 disables caching)
+	 * }
+	 * </pre>
+	 *
+	 * @param cacheTtl the time (in hours) a looked up latest dependency version is cached.
+	 */
+	public void setCacheTtl(int cacheTtl) {
+		this.cacheTtlParam = cacheTtl;
+	}
+
+	/**
+	 * Gets the directory used to cache the looked up latest dependency versions.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  cacheDir = file(...) // default: file("${gradle.gradleUserHomeDir}/caches/de.carne.java-tools")
+	 * }
+	 * </pre>
+	 *
+	 * @return the directory used to cache the looked up latest dependency versions.
+	 */
+	public File getCacheDir() {
+		return this.cacheDirParam;
+	}
+
+	/**
+	 * Sets the directory used to cache the looked up latest dependency versions.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  cacheDir = file(...) // default: file("${gradle.gradleUserHomeDir}/caches/de.carne.java-tools")
+	 * }
+	 * </pre>
+	 *
+	 * @param cacheDir the directory used to cache the looked up latest dependency versions.
+	 */
+	public void setCacheDir(File cacheDir) {
+		this.cacheDirParam = cacheDir;
+	}
+
+	/**
+	 * Checks whether offline mode is enabled.
+	 * <p>
+	 * In offline mode the latest dependency versions are taken from the version cache and Gradle's module cache
+	 * without accessing any repository. Offline mode is also enabled if Gradle itself is running in offline mode.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  offline = true|false // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @return {@code true} if offline mode is enabled.
+	 */
+	public boolean isOffline() {
+		return this.offlineParam;
+	}
+
+	/**
+	 * Enables/disables offline mode.
+	 * <p>
+	 * In offline mode the latest dependency versions are taken from the version cache and Gradle's module cache
+	 * without accessing any repository. Offline mode is also enabled if Gradle itself is running in offline mode.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  offline = true|false // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @param offline whether to enable or disable offline mode.
+	 */
+	public void setOffline(boolean offline) {
+		this.offlineParam = offline;
+	}
+
+	/**
+	 * Gets the maximum number of latest dependency version lookups executed in parallel.
+	 * <p>
+	 * Only lookups not requiring a dependency resolution (offline lookups and Maven metadata lookups) are executed in
+	 * parallel. The overall number of parallel tasks is still limited by Gradle's {@code --max-workers} setting. As
+	 * the default {@value #LOOKUP_ENGINE_GRADLE} lookup engine resolves all online lookups sequentially, this setting
+	 * only takes effect for offline lookups or in combination with the {@value #LOOKUP_ENGINE_MAVEN} lookup engine.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  maxParallelLookups = 4 // default: 4
+	 * }
+	 * </pre>
+	 *
+	 * @return the maximum number of latest dependency version lookups executed in parallel.
+	 */
+	public int getMaxParallelLookups() {
+		return this.maxParallelLookupsParam;
+	}
+
+	/**
+	 * Sets the maximum number of latest dependency version lookups executed in parallel.
+	 * <p>
+	 * Only lookups not requiring a dependency resolution (offline lookups and Maven metadata lookups) are executed in
+	 * parallel. The overall number of parallel tasks is still limited by Gradle's {@code --max-workers} setting. As
+	 * the default {@value #LOOKUP_ENGINE_GRADLE} lookup engine resolves all online lookups sequentially, this setting
+	 * only takes effect for offline lookups or in combination with the {@value #LOOKUP_ENGINE_MAVEN} lookup engine.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  maxParallelLookups = 4 // default: 4
+	 * }
+	 * </pre>
+	 *
+	 * @param maxParallelLookups the maximum number of latest dependency version lookups executed in parallel.
+	 */
+	public void setMaxParallelLookups(int maxParallelLookups) {
+		this.maxParallelLookupsParam = maxParallelLookups;
+	}
+
+	/**
+	 * Gets the engine used to look up the latest dependency versions.
+	 * <p>
+	 * The {@value #LOOKUP_ENGINE_GRADLE} engine resolves the latest dependency versions via Gradle's dependency
+	 * resolution and supports all repository types. The {@value #LOOKUP_ENGINE_MAVEN} engine fetches the
+	 * {@code maven-metadata.xml} files directly and only supports Maven repositories without or with an explicitly
+	 * declared basic or HTTP header authentication (dependency sets using other repository types or authentication
+	 * schemes are still looked up via Gradle's dependency resolution).
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  lookupEngine = "gradle"|"maven" // default: "gradle"
+	 * }
+	 * </pre>
+	 *
+	 * @return the engine used to look up the latest dependency versions.
+	 */
+	public String getLookupEngine() {
+		return this.lookupEngineParam;
+	}
+
+	/**
+	 * Sets the engine used to look up the latest dependency versions.
+	 * <p>
+	 * The {@value #LOOKUP_ENGINE_GRADLE} engine resolves the latest dependency versions via Gradle's dependency
+	 * resolution and supports all repository types. The {@value #LOOKUP_ENGINE_MAVEN} engine fetches the
+	 * {@code maven-metadata.xml} files directly and only supports Maven repositories without or with an explicitly
+	 * declared basic or HTTP header authentication (dependency sets using other repository types or authentication
+	 * schemes are still looked up via Gradle's dependency resolution).
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  lookupEngine = "gradle"|"maven" // default: "gradle"
+	 * }
+	 * </pre>
+	 *
+	 * @param lookupEngine the engine used to look up the latest dependency versions.
+	 */
+	public void setLookupEngine(String lookupEngine) {
+		if (!LOOKUP_ENGINE_GRADLE.equals(lookupEngine) && !LOOKUP_ENGINE_MAVEN.equals(lookupEngine)) {
+			throw new IllegalArgumentException("Unknown lookup engine: " + lookupEngine);
+		}
+		this.lookupEngineParam = lookupEngine;
+	}
+
+	/**
+	 * Checks whether transitive mode is enabled.
+	 * <p>
+	 * In transitive mode the resolved dependency graphs of all resolvable configurations are walked to check the
+	 * transitive dependencies as well. Every module is looked up only once (but reported for every configuration it
+	 * has been found in). The {@code checkAllDependencyVersions} task only walks the root project's configurations (the
+	 * transitive dependencies of any other project are checked by the project's {@code checkDependencyVersions} task).
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  transitive = true|false // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @return {@code true} if transitive mode is enabled.
+	 */
+	public boolean isTransitive() {
+		return this.transitiveParam;
+	}
+
+	/**
+	 * Enables/disables transitive mode.
+	 * <p>
+	 * In transitive mode the resolved dependency graphs of all resolvable configurations are walked to check the
+	 * transitive dependencies as well. Every module is looked up only once (but reported for every configuration it
+	 * has been found in). The {@code checkAllDependencyVersions} task only walks the root project's configurations (the
+	 * transitive dependencies of any other project are checked by the project's {@code checkDependencyVersions} task).
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  transitive = true|false // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @param transitive whether to enable or disable transitive mode.
+	 */
+	public void setTransitive(boolean transitive) {
+		this.transitiveParam = transitive;
+	}
+
+	/**
+	 * Checks whether the JSON report is enabled.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  jsonReport = true|false // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @return {@code true} if the JSON report is enabled.
+	 */
+	public boolean isJsonReport() {
+		return this.jsonReportParam;
+	}
+
+	/**
+	 * Enables/disables the JSON report.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  jsonReport = true|false // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @param jsonReport whether to enable or disable the JSON report.
+	 */
+	public void setJsonReport(boolean jsonReport) {
+		this.jsonReportParam = jsonReport;
+	}
+
+	/**
+	 * Checks whether the CSV report is enabled.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  csvReport = true|false // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @return {@code true} if the CSV report is enabled.
+	 */
+	public boolean isCsvReport() {
+		return this.csvReportParam;
+	}
+
+	/**
+	 * Enables/disables the CSV report.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  csvReport = true|false // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @param csvReport whether to enable or disable the CSV report.
+	 */
+	public void setCsvReport(boolean csvReport) {
+		this.csvReportParam = csvReport;
+	}
+
+	/**
+	 * Gets the directory the JSON and CSV reports are written to.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  reportDir = file(...) // default: file("${buildDir}/reports/dependency-versions")
+	 * }
+	 * </pre>
+	 *
+	 * @return the directory the JSON and CSV reports are written to.
+	 */
+	public File getReportDir() {
+		File reportDir = this.reportDirParam;
+
+		return (reportDir != null ? reportDir
+				: this.project.getLayout().getBuildDirectory().dir(REPORT_DIR_DEFAULT).get().getAsFile());
+	}
+
+	/**
+	 * Sets the directory the JSON and CSV reports are written to.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  reportDir = file(...) // default: file("${buildDir}/reports/dependency-versions")
+	 * }
+	 * </pre>
+	 *
+	 * @param reportDir the directory the JSON and CSV reports are written to.
+	 */
+	public void setReportDir(File reportDir) {
+		this.reportDirParam = reportDir;
+	}
+
+	/**
+	 * Gets the baseline file containing the accepted latest dependency versions.
+	 * <p>
+	 * Dependencies whose latest version matches the accepted one are not reported as outdated. As long as the accepted
+	 * version is not expired (see {@linkplain #getCacheTtl()}) no lookup is performed for them. The baseline file is
+	 * updated by invoking the check task with option --update-baseline (the updates are merged into the file; hence it
+	 * may be shared by the check tasks of several projects).
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  baselineFile = file(...) // default: null (no baseline)
+	 * }
+	 * </pre>
+	 *
+	 * @return the baseline file containing the accepted latest dependency versions (may be {@code null}).
+	 */
+	@Nullable
+	public File getBaselineFile() {
+		return this.baselineFileParam;
+	}
+
+	/**
+	 * Sets the baseline file containing the accepted latest dependency versions.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  baselineFile = file(...) // default: null (no baseline)
+	 * }
+	 * </pre>
+	 *
+	 * @param baselineFile the baseline file containing the accepted latest dependency versions.
+	 */
+	public void setBaselineFile(@Nullable File baselineFile) {
+		this.baselineFileParam = baselineFile;
+	}
+
+	/**
+	 * Gets the version catalog file to check.
+	 * <p>
+	 * The libraries declared in the version catalog are checked once per build (by the root project's tasks) regardless
+	 * of whether they are used by any configuration. The catalog is only checked if the file exists.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  versionCatalogFile = file(...) // default: file("${rootDir}/gradle/libs.versions.toml")
+	 * }
+	 * </pre>
+	 *
+	 * @return the version catalog file to check.
+	 */
+	public File getVersionCatalogFile() {
+		File versionCatalogFile = this.versionCatalogFileParam;
+
+		return (versionCatalogFile != null ? versionCatalogFile
+				: new File(this.project.getRootDir(), VERSION_CATALOG_FILE_DEFAULT));
+	}
+
+	/**
+	 * Sets the version catalog file to check.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * checkDependencyVersions {
+	 *  versionCatalogFile = file(...) // default: file("${rootDir}/gradle/libs.versions.toml")
+	 * }
+	 * </pre>
+	 *
+	 * @param versionCatalogFile the version catalog file to check.
+	 */
+	public void setVersionCatalogFile(File versionCatalogFile) {
+		this.versionCatalogFileParam = versionCatalogFile;
+	}
+
+}
@@ -46,6 +46,11 @@ public class GenerateI18N {
 	private String lineSeparatorParam = System.getProperty("line.separator", "\n");
 	@SuppressWarnings("null")
 	private String encodingParam = System.getProperty("file.encoding", "UTF-8");
+	private boolean cacheFormatsParam = false;
+	private boolean lazyBundleParam = false;
+	private boolean indexedKeysParam = false;
+	private boolean compileBundlesParam = false;
+	private boolean fixedArityAccessorsParam = false;
 
 	/**
 	 * Constructs a new {@linkplain GenerateI18N} instance.
@@ -273,4 +278,176 @@ public class GenerateI18N {
 		this.encodingParam = encoding;
 	}
 
+	/**
+	 * Gets the flag whether generated classes cache the parsed message formats.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * generateI18N {
+	 *  cacheFormats = true // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @return {@code true} if generated classes cache the parsed message formats.
+	 */
+	public boolean isCacheFormats() {
+		return this.cacheFormatsParam;
+	}
+
+	/**
+	 * Sets the flag whether generated classes cache the parsed message formats.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * generateI18N {
+	 *  cacheFormats = true // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @param cacheFormats whether generated classes cache the parsed message formats.
+	 */
+	public void setCacheFormats(boolean cacheFormats) {
+		this.cacheFormatsParam = cacheFormats;
+	}
+
+	/**
+	 * Gets the flag whether generated classes load their bundle on first access.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * generateI18N {
+	 *  lazyBundle = true // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @return {@code true} if generated classes load their bundle on first access.
+	 */
+	public boolean isLazyBundle() {
+		return this.lazyBundleParam;
+	}
+
+	/**
+	 * Sets the flag whether generated classes load their bundle on first access.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * generateI18N {
+	 *  lazyBundle = true // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @param lazyBundle whether generated classes load their bundle on first access.
+	 */
+	public void setLazyBundle(boolean lazyBundle) {
+		this.lazyBundleParam = lazyBundle;
+	}
+
+	/**
+	 * Gets the flag whether generated classes provide index based access to the resource strings.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * generateI18N {
+	 *  indexedKeys = true // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @return {@code true} if generated classes provide index based access to the resource strings.
+	 */
+	public boolean isIndexedKeys() {
+		return this.indexedKeysParam;
+	}
+
+	/**
+	 * Sets the flag whether generated classes provide index based access to the resource strings.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * generateI18N {
+	 *  indexedKeys = true // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @param indexedKeys whether generated classes provide index based access to the resource strings.
+	 */
+	public void setIndexedKeys(boolean indexedKeys) {
+		this.indexedKeysParam = indexedKeys;
+	}
+
+	/**
+	 * Gets the flag whether bundles are additionally compiled to {@linkplain java.util.ListResourceBundle} classes.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * generateI18N {
+	 *  compileBundles = true // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @return {@code true} if bundles are additionally compiled to {@linkplain java.util.ListResourceBundle}
+	 * classes.
+	 */
+	public boolean isCompileBundles() {
+		return this.compileBundlesParam;
+	}
+
+	/**
+	 * Sets the flag whether bundles are additionally compiled to {@linkplain java.util.ListResourceBundle} classes.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * generateI18N {
+	 *  compileBundles = true // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @param compileBundles whether bundles are additionally compiled to {@linkplain java.util.ListResourceBundle}
+	 * classes.
+	 */
+	public void setCompileBundles(boolean compileBundles) {
+		this.compileBundlesParam = compileBundles;
+	}
+
+	/**
+	 * Gets the flag whether generated classes provide fixed arity accessors for the resource strings.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * generateI18N {
+	 *  fixedArityAccessors = true // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @return {@code true} if generated classes provide fixed arity accessors for the resource strings.
+	 */
+	public boolean isFixedArityAccessors() {
+		return this.fixedArityAccessorsParam;
+	}
+
+	/**
+	 * Sets the flag whether generated classes provide fixed arity accessors for the resource strings.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * generateI18N {
+	 *  fixedArityAccessors = true // default: false
+	 * }
+	 * </pre>
+	 *
+	 * @param fixedArityAccessors whether generated classes provide fixed arity accessors for the resource strings.
+	 */
+	public void setFixedArityAccessors(boolean fixedArityAccessors) {
+		this.fixedArityAccessorsParam = fixedArityAccessors;
+	}
+
 }
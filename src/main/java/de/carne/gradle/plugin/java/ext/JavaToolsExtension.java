@@ -48,6 +48,7 @@ public class JavaToolsExtension {
 
 	private final PlatformInfo platformInfo = new PlatformInfo();
 	private final GenerateI18N generateI18NConfig;
+	private final CheckDependencyVersions checkDependencyVersionsConfig;
 	private final GitHubRelease githubRelease;
 	private final Node node;
 
@@ -59,6 +60,7 @@ public class JavaToolsExtension {
 	public JavaToolsExtension(Project project) {
 		this.project = project;
 		this.generateI18NConfig = new GenerateI18N(this.project);
+		this.checkDependencyVersionsConfig = new CheckDependencyVersions(this.project);
 		this.githubRelease = new GitHubRelease(this.project);
 		this.node = new Node(this.project);
 	}
@@ -100,6 +102,25 @@ public class JavaToolsExtension {
 		return this.generateI18NConfig;
 	}
 
+	/**
+	 * Gets the checkDependencyVersions configuration object.
+	 * <p>
+	 * build.gradle:
+	 *
+	 * <pre>
+	 * javatools {
+	 *  checkDependencyVersions {
+	 *   ...
+	 *  }
+	 * }
+	 * </pre>
+	 *
+	 * @return the checkDependencyVersions configuration object.
+	 */
+	public CheckDependencyVersions getCheckDependencyVersions() {
+		return this.checkDependencyVersionsConfig;
+	}
+
 	/**
 	 * Gets the githubRelease configuration object.
 	 * <p>
@@ -148,6 +169,15 @@ public class JavaToolsExtension {
 		configuration.execute(this.generateI18NConfig);
 	}
 
+	/**
+	 * Executes a {@linkplain #checkDependencyVersions} configuration action.
+	 *
+	 * @param configuration the configuration action to execute.
+	 */
+	public void checkDependencyVersions(Action<? super CheckDependencyVersions> configuration) {
+		configuration.execute(this.checkDependencyVersionsConfig);
+	}
+
 	/**
 	 * Executes a {@linkplain #githubRelease} configuration action.
 	 *
@@ -30,6 +30,14 @@ class ArtifactId implements Comparable<ArtifactId> {
 		this.name = name;
 	}
 
+	public String getGroup() {
+		return this.group;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
 	@Override
 	public int compareTo(ArtifactId o) {
 		int comparison = 0;
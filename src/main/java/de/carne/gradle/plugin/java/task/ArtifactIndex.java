@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the declared dependency versions by {@linkplain ArtifactId}.
+ * <p>
+ * Besides the declared versions the index also keeps track of the kind of versions (snapshot and/or qualified)
+ * declared for an artifact. This reduces candidate checks to a single hash lookup (a candidate version is accepted if
+ * at least one declared version accepts it; as a snapshot version is always also a qualified version this is
+ * equivalent to checking the per artifact flags). The declarations of an artifact are recorded in their
+ * {@linkplain DependencyMap} order, hence they can be used to detect declaration changes between builds.
+ */
+class ArtifactIndex {
+
+	private final Map<ArtifactId, Entry> entries = new HashMap<>();
+
+	ArtifactIndex(DependencyMap dependencyMap) {
+		for (DependencyKey dependencyKey : dependencyMap) {
+			add(dependencyKey);
+		}
+	}
+
+	private void add(DependencyKey dependencyKey) {
+		ArtifactVersionId artifactVersionId = dependencyKey.getArtifactVersionId();
+
+		this.entries.computeIfAbsent(artifactVersionId.getArtifactId(), key -> new Entry()).add(dependencyKey,
+				artifactVersionId);
+	}
+
+	public Set<ArtifactId> getArtifactIds() {
+		return Collections.unmodifiableSet(this.entries.keySet());
+	}
+
+	public Set<ArtifactVersionId> getVersions(ArtifactId artifactId) {
+		Entry entry = this.entries.get(artifactId);
+
+		return (entry != null ? Collections.unmodifiableSet(entry.versions) : Collections.emptySet());
+	}
+
+	public String getDependencyVersion(ArtifactId artifactId) {
+		Entry entry = this.entries.get(artifactId);
+
+		return (entry != null && entry.snapshot ? "latest.integration" : "latest.release");
+	}
+
+	public String getLookupSelector(ArtifactId artifactId) {
+		Entry entry = this.entries.get(artifactId);
+
+		return getDependencyVersion(artifactId) + (entry != null && entry.qualified ? "+qualified" : "");
+	}
+
+	public String getDeclarations(ArtifactId artifactId) {
+		Entry entry = this.entries.get(artifactId);
+
+		return (entry != null ? entry.declarations.toString() : "");
+	}
+
+	public boolean isCandidate(ArtifactVersionId candidate) {
+		Entry entry = this.entries.get(candidate.getArtifactId());
+
+		return entry != null && (!candidate.isSnapshot() || entry.snapshot)
+				&& (!candidate.isQualified() || entry.qualified);
+	}
+
+	private static class Entry {
+
+		final Set<ArtifactVersionId> versions = new HashSet<>();
+		final StringBuilder declarations = new StringBuilder();
+		boolean snapshot = false;
+		boolean qualified = false;
+
+		Entry() {
+			// Nothing to do here
+		}
+
+		void add(DependencyKey dependencyKey, ArtifactVersionId artifactVersionId) {
+			this.versions.add(artifactVersionId);
+			this.declarations.append(dependencyKey).append('\n');
+			this.snapshot |= artifactVersionId.isSnapshot();
+			this.qualified |= artifactVersionId.isQualified();
+		}
+
+	}
+
+}
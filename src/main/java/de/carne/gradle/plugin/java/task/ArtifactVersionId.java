@@ -23,9 +23,13 @@ import org.eclipse.jdt.annotation.Nullable;
 class ArtifactVersionId implements Comparable<ArtifactVersionId> {
 
 	private final ArtifactId artifactId;
-	private final String version;
+	private final Version version;
 
 	public ArtifactVersionId(String group, String name, String version) {
+		this(group, name, Version.valueOf(version));
+	}
+
+	public ArtifactVersionId(String group, String name, Version version) {
 		this.artifactId = new ArtifactId(group, name);
 		this.version = version;
 	}
@@ -34,17 +38,16 @@ class ArtifactVersionId implements Comparable<ArtifactVersionId> {
 		return this.artifactId;
 	}
 
-	public boolean isSnapshot() {
-		return this.version.endsWith("-SNAPSHOT");
+	public String getVersion() {
+		return this.version.toString();
 	}
 
-	public boolean isQualified() {
-		return this.version.contains("-");
+	public boolean isSnapshot() {
+		return getVersion().endsWith("-SNAPSHOT");
 	}
 
-	public boolean isCandidate(ArtifactVersionId artifactVersionId) {
-		return this.artifactId.equals(artifactVersionId.artifactId) && (!artifactVersionId.isSnapshot() || isSnapshot())
-				&& (!artifactVersionId.isQualified() || isQualified());
+	public boolean isQualified() {
+		return getVersion().contains("-");
 	}
 
 	@Override
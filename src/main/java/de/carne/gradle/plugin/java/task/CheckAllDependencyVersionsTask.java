@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ConfigurationContainer;
+import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.TaskExecutionException;
+import org.gradle.api.tasks.options.Option;
+import org.gradle.workers.WorkerExecutor;
+
+import de.carne.gradle.plugin.java.ext.CheckDependencyVersions;
+import de.carne.gradle.plugin.java.ext.JavaToolsExtension;
+import de.carne.gradle.plugin.java.util.ProjectLogger;
+
+/**
+ * CheckAllDependencyVersionsTask - Check for dependency version updates in all projects.
+ * <p>
+ * This task is only available in the root project. It collects the dependencies of all projects and looks up every
+ * artifact only once for all projects sharing the same repositories.
+ */
+public abstract class CheckAllDependencyVersionsTask extends DefaultTask implements JavaToolsTask {
+
+	private static final String CHECK_ALL_DEPENDENCY_VERSIONS_TASK_GROUP = "help";
+	private static final String CHECK_ALL_DEPENDENCY_VERSIONS_TASK_NAME = "checkAllDependencyVersions";
+	private static final String CHECK_ALL_DEPENDENCY_VERSIONS_TASK_DESCRIPTION = "Check for dependency version updates in all projects.";
+
+	private static final String BUILDSCRIPT_SECTION = "buildscript";
+	private static final String PROJECT_SECTION = "project";
+	private static final String CATALOG_SECTION = "catalog";
+
+	private static final String CHECK_ALL_DEPENDENCY_VERSIONS_STATE_FILE = "checkAllDependencyVersions/state.properties";
+
+	private static final String CHECK_BUILDSCRIPT_DEPENDENCY_VERSIONS_REPORT_TITLE = "Buildscript dependency version check result:";
+	private static final String CHECK_PROJECT_DEPENDENCY_VERSIONS_REPORT_TITLE = "Project dependency version check result:";
+	private static final String CHECK_CATALOG_DEPENDENCY_VERSIONS_REPORT_TITLE = "Version catalog dependency version check result:";
+
+	private boolean updateBaselineParam = false;
+	@Nullable
+	private CheckedDependencies checkedDependencies = null;
+
+	/**
+	 * Creates the {@linkplain CheckAllDependencyVersionsTask}.
+	 *
+	 * @param project the {@linkplain Project} to create the task for.
+	 * @return the created {@linkplain CheckAllDependencyVersionsTask} object.
+	 */
+	public static CheckAllDependencyVersionsTask create(Project project) {
+		project.getLogger().info("Creating task " + CHECK_ALL_DEPENDENCY_VERSIONS_TASK_NAME);
+		return project.getTasks().create(CHECK_ALL_DEPENDENCY_VERSIONS_TASK_NAME,
+				CheckAllDependencyVersionsTask.class);
+	}
+
+	/**
+	 * Gets the {@linkplain WorkerExecutor} used to execute the lookups.
+	 *
+	 * @return the {@linkplain WorkerExecutor} used to execute the lookups.
+	 */
+	@Inject
+	protected abstract WorkerExecutor getWorkerExecutor();
+
+	/**
+	 * Gets the build wide {@linkplain LatestVersionLookupService} used to coordinate the lookups.
+	 *
+	 * @return the build wide {@linkplain LatestVersionLookupService} used to coordinate the lookups.
+	 */
+	@Internal
+	public abstract Property<LatestVersionLookupService> getLookupService();
+
+	/**
+	 * Checks whether the baseline file is (re-)written to accept all currently found dependency version updates.
+	 *
+	 * @return {@code true} if the baseline file is (re-)written.
+	 */
+	@Internal
+	public boolean isUpdateBaseline() {
+		return this.updateBaselineParam;
+	}
+
+	/**
+	 * Enables/disables (re-)writing of the baseline file to accept all currently found dependency version updates.
+	 *
+	 * @param updateBaseline whether to enable or disable (re-)writing of the baseline file.
+	 */
+	@Option(option = "update-baseline",
+			description = "Accept all found dependency version updates by (re-)writing the baseline file.")
+	public void setUpdateBaseline(boolean updateBaseline) {
+		this.updateBaselineParam = updateBaseline;
+	}
+
+	@Override
+	public void apply(Project project) {
+		setGroup(CHECK_ALL_DEPENDENCY_VERSIONS_TASK_GROUP);
+		setDescription(CHECK_ALL_DEPENDENCY_VERSIONS_TASK_DESCRIPTION);
+		getLocalState().register(getStateFile(project));
+		getOutputs().upToDateWhen(spec -> !isUpdateBaseline());
+
+		Provider<LatestVersionLookupService> lookupService = LatestVersionLookupService.register(project);
+
+		getLookupService().set(lookupService);
+		usesService(lookupService);
+		DependencyVersionsReportWriter.configureTask(this, getStateFile(project),
+				() -> getCheckedDependencies(project).getDeclarations());
+	}
+
+	private static Provider<RegularFile> getStateFile(Project project) {
+		return project.getLayout().getBuildDirectory().file(CHECK_ALL_DEPENDENCY_VERSIONS_STATE_FILE);
+	}
+
+	private synchronized CheckedDependencies getCheckedDependencies(Project rootProject) {
+		CheckedDependencies checkedDependenciesMemo = this.checkedDependencies;
+
+		// Collected once and shared by the input fingerprint and the task action
+		if (checkedDependenciesMemo == null) {
+			checkedDependenciesMemo = new CheckedDependencies(rootProject, rootProject.getAllprojects(),
+					rootProject.getExtensions().getByType(JavaToolsExtension.class).getCheckDependencyVersions());
+			this.checkedDependencies = checkedDependenciesMemo;
+		}
+		return checkedDependenciesMemo;
+	}
+
+	/**
+	 * Executes {@linkplain CheckAllDependencyVersionsTask}.
+	 */
+	@TaskAction
+	public void executeCheckAllDependencyVersions() {
+		Project project = getProject();
+
+		ProjectLogger.enterProject(project);
+		try {
+			CheckDependencyVersions checkDependencyVersions = project.getExtensions()
+					.getByType(JavaToolsExtension.class).getCheckDependencyVersions();
+			DependencyVersionBaseline baseline = DependencyVersionBaseline.open(checkDependencyVersions);
+
+			if (baseline == null && isUpdateBaseline()) {
+				getLogger().warn("No baseline file configured; ignoring option --update-baseline");
+			}
+			LatestVersionLookup lookup = new LatestVersionLookup(project, checkDependencyVersions,
+					getWorkerExecutor(), getLookupService().get(), getStateFile(project).get().getAsFile(), baseline,
+					isUpdateBaseline());
+			CheckedDependencies allCheckedDependencies = getCheckedDependencies(project);
+
+			// Resolving the configurations of other projects is not permitted; hence only the root project's
+			// transitive dependencies are walked here (the other projects' ones are checked by their own tasks)
+			if (checkDependencyVersions.isTransitive()) {
+				allCheckedDependencies.addTransitiveDependencies(project,
+						getLookupService().get().getDependencyGraphWalker());
+			}
+			ReportAction buildscriptReport = submitAllDependencyVersions(lookup, BUILDSCRIPT_SECTION,
+					allCheckedDependencies::getBuildscriptDependencyMap, p -> p.getBuildscript().getConfigurations(),
+					p -> p.getBuildscript().getRepositories());
+			ReportAction projectReport = submitAllDependencyVersions(lookup, PROJECT_SECTION,
+					allCheckedDependencies::getProjectDependencyMap, Project::getConfigurations,
+					Project::getRepositories);
+
+			DependencyMap catalogDependencyMap = allCheckedDependencies.getCatalogDependencyMap();
+			LatestVersionLookup.Request catalogRequest = VersionCatalog.submit(lookup, CATALOG_SECTION, project,
+					catalogDependencyMap);
+
+			lookup.complete();
+
+			// Report in stable order (regardless of the order the lookups have been completed)
+			try {
+				try (DependencyVersionsReportWriter reportWriter = DependencyVersionsReportWriter.open(this)) {
+					buildscriptReport.report(new CheckDependencyVersionsReport(project, BUILDSCRIPT_SECTION,
+							CHECK_BUILDSCRIPT_DEPENDENCY_VERSIONS_REPORT_TITLE, reportWriter, baseline));
+					projectReport.report(new CheckDependencyVersionsReport(project, PROJECT_SECTION,
+							CHECK_PROJECT_DEPENDENCY_VERSIONS_REPORT_TITLE, reportWriter, baseline));
+					new CheckDependencyVersionsReport(project, CATALOG_SECTION,
+							CHECK_CATALOG_DEPENDENCY_VERSIONS_REPORT_TITLE, reportWriter, baseline)
+									.reportDependencyVersions(catalogDependencyMap, catalogRequest);
+				}
+				lookup.getStatistics().report(getLogger());
+				lookup.getStatistics().write(DependencyVersionsReportWriter.getStatisticsFile(this));
+			} catch (IOException e) {
+				throw new TaskExecutionException(this, e);
+			}
+		} finally {
+			// Not needed any longer
+			this.checkedDependencies = null;
+			ProjectLogger.leaveProject();
+		}
+	}
+
+	private ReportAction submitAllDependencyVersions(LatestVersionLookup lookup, String section,
+			Function<Project, DependencyMap> dependencyMapFunction,
+			Function<Project, ConfigurationContainer> configurationsFunction,
+			Function<Project, RepositoryHandler> repositoriesFunction) {
+		Map<Project, DependencyMap> projectDependencyMaps = new LinkedHashMap<>();
+		Map<Project, List<String>> projectRepositoryKeys = new HashMap<>();
+		Map<List<String>, Project> repositoryGroups = new LinkedHashMap<>();
+		Map<List<String>, DependencyMap> repositoryGroupDependencyMaps = new HashMap<>();
+
+		// Collect the dependencies of all projects and merge them per distinct set of repositories (the first project
+		// using a set of repositories performs the lookup for all projects using the same repositories)
+		for (Project project : getProject().getAllprojects()) {
+			DependencyMap dependencyMap = dependencyMapFunction.apply(project);
+			List<String> repositoryKeys = LatestVersionLookup.getRepositoryKeys(repositoriesFunction.apply(project));
+
+			projectDependencyMaps.put(project, dependencyMap);
+			projectRepositoryKeys.put(project, repositoryKeys);
+			repositoryGroups.putIfAbsent(repositoryKeys, project);
+			repositoryGroupDependencyMaps.computeIfAbsent(repositoryKeys, key -> new DependencyMap())
+					.addAll(dependencyMap);
+		}
+
+		Map<List<String>, LatestVersionLookup.Request> repositoryGroupRequests = new HashMap<>();
+		Project rootProject = getProject();
+
+		// Only the root project's repository group is resolved via a detached configuration (resolving another
+		// project's configurations is not permitted and its repositories must not be touched); any other group is
+		// looked up without a resolution
+		repositoryGroups.forEach((repositoryKeys, project) -> {
+			DependencyMap dependencyMap = repositoryGroupDependencyMaps.get(repositoryKeys);
+
+			if (dependencyMap != null && !dependencyMap.isEmpty()) {
+				Configuration cdvConfiguration = (project.equals(rootProject)
+						? configurationsFunction.apply(rootProject).detachedConfiguration().setVisible(false)
+								.setTransitive(false)
+						: null);
+
+				repositoryGroupRequests.put(repositoryKeys, lookup.submit(section + project.getPath(), dependencyMap,
+						cdvConfiguration, repositoriesFunction.apply(project)));
+			}
+		});
+		return report -> {
+			for (Map.Entry<Project, DependencyMap> projectDependencyMapEntry : projectDependencyMaps.entrySet()) {
+				report.reportDependencyVersions(projectDependencyMapEntry.getValue(), repositoryGroupRequests
+						.get(projectRepositoryKeys.get(projectDependencyMapEntry.getKey())));
+			}
+		};
+	}
+
+	@FunctionalInterface
+	private interface ReportAction {
+
+		void report(CheckDependencyVersionsReport report) throws IOException;
+
+	}
+
+}
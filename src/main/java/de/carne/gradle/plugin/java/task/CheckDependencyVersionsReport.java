@@ -16,23 +16,62 @@
  */
 package de.carne.gradle.plugin.java.task;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
 import org.eclipse.jdt.annotation.Nullable;
 import org.gradle.api.Project;
 
 class CheckDependencyVersionsReport {
 
 	private final Project project;
+	private final String section;
 	private final String title;
+	@Nullable
+	private final DependencyVersionsReportWriter reportWriter;
+	@Nullable
+	private final DependencyVersionBaseline baseline;
 	private @Nullable String lastProjectName = null;
 	private @Nullable String lastConfigurationName = null;
 
-	public CheckDependencyVersionsReport(Project project, String title) {
+	public CheckDependencyVersionsReport(Project project, String section, String title,
+			@Nullable DependencyVersionsReportWriter reportWriter, @Nullable DependencyVersionBaseline baseline) {
 		this.project = project;
+		this.section = section;
 		this.title = title;
+		this.reportWriter = reportWriter;
+		this.baseline = baseline;
+	}
+
+	public void reportDependencyVersions(DependencyMap dependencyMap, @Nullable LatestVersionLookup.Request request)
+			throws IOException {
+		Map<ArtifactId, LatestVersion> latestVersionsMap = (request != null ? request.getLatestVersions()
+				: Collections.emptyMap());
+
+		for (DependencyKey dependencyKey : dependencyMap) {
+			ArtifactVersionId dependencyArtifactVersionId = dependencyKey.getArtifactVersionId();
+			ArtifactId dependencyArtifactId = dependencyArtifactVersionId.getArtifactId();
+			LatestVersion latestVersion = latestVersionsMap.get(dependencyArtifactId);
+			// Drift accepted via the baseline is not reported (on the console)
+			boolean accepted = latestVersion != null && this.baseline != null
+					&& this.baseline.isAccepted(latestVersion);
+
+			if (latestVersion != null && !accepted
+					&& dependencyArtifactVersionId.compareTo(latestVersion.getArtifactVersionId()) != 0) {
+				reportDependencyMismatch(dependencyKey.getProject(), dependencyKey.getConfiguration(),
+						dependencyArtifactVersionId, latestVersion);
+			}
+			if (this.reportWriter != null) {
+				this.reportWriter.writeRow(this.section, dependencyKey.getProject(), dependencyKey.getConfiguration(),
+						dependencyArtifactVersionId, latestVersion, accepted,
+						(request != null ? request.getLatency(dependencyArtifactId) : -1));
+			}
+		}
 	}
 
 	public void reportDependencyMismatch(String projectName, String configurationName, ArtifactVersionId actual,
-			ArtifactVersionId found) {
+			LatestVersion found) {
 		writeContext(projectName, configurationName);
 		write("      Dependency mismatch: %1$s -> %2$s", actual, found);
 	}
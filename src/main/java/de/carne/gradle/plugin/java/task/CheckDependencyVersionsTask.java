@@ -16,38 +16,52 @@
  */
 package de.carne.gradle.plugin.java.task;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
+import java.io.IOException;
+import java.util.Collections;
 
+import javax.inject.Inject;
+
+import org.eclipse.jdt.annotation.Nullable;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Project;
-import org.gradle.api.artifacts.ComponentSelection;
 import org.gradle.api.artifacts.Configuration;
-import org.gradle.api.artifacts.Dependency;
-import org.gradle.api.artifacts.LenientConfiguration;
-import org.gradle.api.artifacts.ModuleVersionIdentifier;
-import org.gradle.api.artifacts.ResolvedArtifact;
-import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.ConfigurationContainer;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.initialization.dsl.ScriptHandler;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.TaskExecutionException;
+import org.gradle.api.tasks.options.Option;
+import org.gradle.workers.WorkerExecutor;
 
+import de.carne.gradle.plugin.java.ext.CheckDependencyVersions;
+import de.carne.gradle.plugin.java.ext.JavaToolsExtension;
 import de.carne.gradle.plugin.java.util.ProjectLogger;
 
 /**
  * CheckDependencyVersionsTask - Check for dependency version updates.
  */
-public class CheckDependencyVersionsTask extends DefaultTask implements JavaToolsTask {
+public abstract class CheckDependencyVersionsTask extends DefaultTask implements JavaToolsTask {
 
 	private static final String CHECK_DEPENDENCY_VERSIONS_TASK_GROUP = "help";
 	private static final String CHECK_DEPENDENCY_VERSIONS_TASK_NAME = "checkDependencyVersions";
 	private static final String CHECK_DEPENDENCY_VERSIONS_TASK_DESCRIPTION = "Check for dependency version updates.";
 
-	private static final String CHECK_BUILDSCRIPT_DEPENDENCY_VERSIONS_CONFIGURATION_NAME = "checkBuildscriptDependencyVersions";
-	private static final String CHECK_PROJECT_DEPENDENCY_VERSIONS_CONFIGURATION_NAME = "checkProjectDependencyVersions";
+	private static final String BUILDSCRIPT_SECTION = "buildscript";
+	private static final String PROJECT_SECTION = "project";
+	private static final String CATALOG_SECTION = "catalog";
+
+	private static final String CHECK_DEPENDENCY_VERSIONS_STATE_FILE = "checkDependencyVersions/state.properties";
 
 	private static final String CHECK_BUILDSCRIPT_DEPENDENCY_VERSIONS_REPORT_TITLE = "Buildscript dependency version check result:";
 	private static final String CHECK_PROJECT_DEPENDENCY_VERSIONS_REPORT_TITLE = "Project dependency version check result:";
+	private static final String CHECK_CATALOG_DEPENDENCY_VERSIONS_REPORT_TITLE = "Version catalog dependency version check result:";
+
+	private boolean updateBaselineParam = false;
+	@Nullable
+	private CheckedDependencies checkedDependencies = null;
 
 	/**
 	 * Creates the {@linkplain CheckDependencyVersionsTask}.
@@ -60,118 +74,142 @@ public class CheckDependencyVersionsTask extends DefaultTask implements JavaTool
 		return project.getTasks().create(CHECK_DEPENDENCY_VERSIONS_TASK_NAME, CheckDependencyVersionsTask.class);
 	}
 
-	@Override
-	public void apply(Project project) {
-		setGroup(CHECK_DEPENDENCY_VERSIONS_TASK_GROUP);
-		setDescription(CHECK_DEPENDENCY_VERSIONS_TASK_DESCRIPTION);
-		project.getBuildscript().getConfigurations().create(CHECK_BUILDSCRIPT_DEPENDENCY_VERSIONS_CONFIGURATION_NAME)
-				.setVisible(false).setTransitive(false);
-		project.getConfigurations().create(CHECK_PROJECT_DEPENDENCY_VERSIONS_CONFIGURATION_NAME).setVisible(false)
-				.setTransitive(false);
-	}
+	/**
+	 * Gets the {@linkplain WorkerExecutor} used to execute the lookups.
+	 *
+	 * @return the {@linkplain WorkerExecutor} used to execute the lookups.
+	 */
+	@Inject
+	protected abstract WorkerExecutor getWorkerExecutor();
 
 	/**
-	 * Executes {@linkplain CheckDependencyVersionsTask}.
+	 * Gets the build wide {@linkplain LatestVersionLookupService} used to coordinate the lookups.
+	 *
+	 * @return the build wide {@linkplain LatestVersionLookupService} used to coordinate the lookups.
 	 */
-	@TaskAction
-	public void executeCheckDependencyVersions() {
-		Project project = getProject();
+	@Internal
+	public abstract Property<LatestVersionLookupService> getLookupService();
 
-		ProjectLogger.enterProject(project);
-		try {
-			executeCheckDependencyVersions(DependencyMap.fromBuildscript(project),
-					Objects.requireNonNull(project.getBuildscript().getConfigurations()
-							.findByName(CHECK_BUILDSCRIPT_DEPENDENCY_VERSIONS_CONFIGURATION_NAME)),
-					new CheckDependencyVersionsReport(project, CHECK_BUILDSCRIPT_DEPENDENCY_VERSIONS_REPORT_TITLE));
-			executeCheckDependencyVersions(DependencyMap.fromProject(project),
-					Objects.requireNonNull(project.getConfigurations()
-							.findByName(CHECK_PROJECT_DEPENDENCY_VERSIONS_CONFIGURATION_NAME)),
-					new CheckDependencyVersionsReport(project, CHECK_PROJECT_DEPENDENCY_VERSIONS_REPORT_TITLE));
-		} finally {
-			ProjectLogger.leaveProject();
-		}
+	/**
+	 * Checks whether the baseline file is (re-)written to accept all currently found dependency version updates.
+	 *
+	 * @return {@code true} if the baseline file is (re-)written.
+	 */
+	@Internal
+	public boolean isUpdateBaseline() {
+		return this.updateBaselineParam;
 	}
 
-	private void executeCheckDependencyVersions(DependencyMap dependencyMap, Configuration cdvConfiguration,
-			CheckDependencyVersionsReport report) {
-		for (Map.Entry<DependencyKey, DependencyHolder> dependencyMapEntry : dependencyMap.entrySet()) {
-			DependencyKey dependencyMapEntryKey = dependencyMapEntry.getKey();
-			ArtifactVersionId dependencyArtifactVersionId = dependencyMapEntryKey.getArtifactVersionId();
-
-			String dependencyArtifactIdString = dependencyArtifactVersionId.getArtifactId().toString();
-
-			getProject().getLogger().info("Checking latest version for dependency {}...", dependencyArtifactIdString);
-
-			String artifactDependencyString = dependencyArtifactIdString
-					+ (dependencyArtifactVersionId.isSnapshot() ? ":latest.integration" : ":latest.release");
-			Dependency artifactDependency = getProject().getDependencies().create(artifactDependencyString);
-
-			cdvConfiguration.getDependencies().add(artifactDependency);
-		}
-		cdvConfiguration.resolutionStrategy(resolutionStrategy -> resolutionStrategy
-				.componentSelection(componentSelectionRules -> componentSelectionRules
-						.all(componentSelection -> filterComponentenSelection(dependencyMap, componentSelection))));
-
-		LenientConfiguration resolvedCdvConfiguration = cdvConfiguration.getResolvedConfiguration()
-				.getLenientConfiguration();
-		Map<ArtifactId, ResolvedArtifact> resolvedArtifactsMap = buildResolvedArtifactsMap(
-				resolvedCdvConfiguration.getArtifacts());
-
-		evalDependencyVersions(dependencyMap, resolvedArtifactsMap, report);
+	/**
+	 * Enables/disables (re-)writing of the baseline file to accept all currently found dependency version updates.
+	 *
+	 * @param updateBaseline whether to enable or disable (re-)writing of the baseline file.
+	 */
+	@Option(option = "update-baseline",
+			description = "Accept all found dependency version updates by (re-)writing the baseline file.")
+	public void setUpdateBaseline(boolean updateBaseline) {
+		this.updateBaselineParam = updateBaseline;
 	}
 
-	private void evalDependencyVersions(DependencyMap dependencyMap,
-			Map<ArtifactId, ResolvedArtifact> resolvedArtifactsMap, CheckDependencyVersionsReport report) {
-		for (Map.Entry<DependencyKey, DependencyHolder> dependencyMapEntry : dependencyMap.entrySet()) {
-			DependencyKey dependencyMapEntryKey = dependencyMapEntry.getKey();
-			ArtifactVersionId dependencyArtifactVersionId = dependencyMapEntryKey.getArtifactVersionId();
-			ResolvedArtifact resolvedArtifact = resolvedArtifactsMap.get(dependencyArtifactVersionId.getArtifactId());
+	@Override
+	public void apply(Project project) {
+		setGroup(CHECK_DEPENDENCY_VERSIONS_TASK_GROUP);
+		setDescription(CHECK_DEPENDENCY_VERSIONS_TASK_DESCRIPTION);
+		getLocalState().register(getStateFile(project));
+		getOutputs().upToDateWhen(spec -> !isUpdateBaseline());
 
-			if (resolvedArtifact != null) {
-				ArtifactVersionId resolvedArtifactVersionId = getResolvedArtifactVersionId(resolvedArtifact);
+		Provider<LatestVersionLookupService> lookupService = LatestVersionLookupService.register(project);
 
-				if (dependencyArtifactVersionId.compareTo(resolvedArtifactVersionId) != 0) {
-					report.reportDependencyMismatch(dependencyMapEntryKey.getProject(),
-							dependencyMapEntryKey.getConfiguration(), dependencyArtifactVersionId,
-							resolvedArtifactVersionId);
-				}
-			}
-		}
+		getLookupService().set(lookupService);
+		usesService(lookupService);
+		DependencyVersionsReportWriter.configureTask(this, getStateFile(project),
+				() -> getCheckedDependencies(project).getDeclarations());
 	}
 
-	private void filterComponentenSelection(DependencyMap dependencyMap, ComponentSelection componentSelection) {
-		ArtifactVersionId candidateArtifactVersionId = getCandidateArtifactVersionId(componentSelection.getCandidate());
-
-		if (dependencyMap.keySet().stream().map(DependencyKey::getArtifactVersionId).noneMatch(
-				dependencyArtifactVersionId -> dependencyArtifactVersionId.isCandidate(candidateArtifactVersionId))) {
-			componentSelection.reject("Ignoring candidate " + candidateArtifactVersionId);
-		}
+	private static Provider<RegularFile> getStateFile(Project project) {
+		return project.getLayout().getBuildDirectory().file(CHECK_DEPENDENCY_VERSIONS_STATE_FILE);
 	}
 
-	private Map<ArtifactId, ResolvedArtifact> buildResolvedArtifactsMap(Set<ResolvedArtifact> artifacts) {
-		Map<ArtifactId, ResolvedArtifact> resolvedArtifactsMap = new HashMap<>();
+	private synchronized CheckedDependencies getCheckedDependencies(Project project) {
+		CheckedDependencies checkedDependenciesMemo = this.checkedDependencies;
 
-		for (ResolvedArtifact artifact : artifacts) {
-			resolvedArtifactsMap.put(getResolvedArtifactId(artifact), artifact);
+		// Collected once and shared by the input fingerprint and the task action
+		if (checkedDependenciesMemo == null) {
+			checkedDependenciesMemo = new CheckedDependencies(project, Collections.singleton(project),
+					project.getExtensions().getByType(JavaToolsExtension.class).getCheckDependencyVersions());
+			this.checkedDependencies = checkedDependenciesMemo;
 		}
-		return resolvedArtifactsMap;
+		return checkedDependenciesMemo;
 	}
 
-	private ArtifactId getResolvedArtifactId(ResolvedArtifact artifact) {
-		ModuleVersionIdentifier artifactIdentifier = artifact.getModuleVersion().getId();
-
-		return new ArtifactId(artifactIdentifier.getGroup(), artifactIdentifier.getName());
-	}
+	/**
+	 * Executes {@linkplain CheckDependencyVersionsTask}.
+	 */
+	@TaskAction
+	public void executeCheckDependencyVersions() {
+		Project project = getProject();
 
-	private ArtifactVersionId getResolvedArtifactVersionId(ResolvedArtifact artifact) {
-		ModuleVersionIdentifier artifactIdentifier = artifact.getModuleVersion().getId();
+		ProjectLogger.enterProject(project);
+		try {
+			CheckDependencyVersions checkDependencyVersions = project.getExtensions()
+					.getByType(JavaToolsExtension.class).getCheckDependencyVersions();
+			DependencyVersionBaseline baseline = DependencyVersionBaseline.open(checkDependencyVersions);
 
-		return new ArtifactVersionId(artifactIdentifier.getGroup(), artifactIdentifier.getName(),
-				artifactIdentifier.getVersion());
+			if (baseline == null && isUpdateBaseline()) {
+				getLogger().warn("No baseline file configured; ignoring option --update-baseline");
+			}
+			ScriptHandler buildscript = project.getBuildscript();
+			LatestVersionLookup lookup = new LatestVersionLookup(project, checkDependencyVersions,
+					getWorkerExecutor(), getLookupService().get(), getStateFile(project).get().getAsFile(), baseline,
+					isUpdateBaseline());
+			CheckedDependencies projectCheckedDependencies = getCheckedDependencies(project);
+
+			if (checkDependencyVersions.isTransitive()) {
+				projectCheckedDependencies.addTransitiveDependencies(project,
+						getLookupService().get().getDependencyGraphWalker());
+			}
+			DependencyMap buildscriptDependencyMap = projectCheckedDependencies.getBuildscriptDependencyMap(project);
+			LatestVersionLookup.Request buildscriptRequest = lookup.submit(BUILDSCRIPT_SECTION,
+					buildscriptDependencyMap, createCheckConfiguration(buildscript.getConfigurations()),
+					buildscript.getRepositories());
+			DependencyMap projectDependencyMap = projectCheckedDependencies.getProjectDependencyMap(project);
+			LatestVersionLookup.Request projectRequest = lookup.submit(PROJECT_SECTION, projectDependencyMap,
+					createCheckConfiguration(project.getConfigurations()), project.getRepositories());
+
+			DependencyMap catalogDependencyMap = projectCheckedDependencies.getCatalogDependencyMap();
+			LatestVersionLookup.Request catalogRequest = VersionCatalog.submit(lookup, CATALOG_SECTION, project,
+					catalogDependencyMap);
+
+			lookup.complete();
+
+			// Report in stable order (regardless of the order the lookups have been completed)
+			try {
+				try (DependencyVersionsReportWriter reportWriter = DependencyVersionsReportWriter.open(this)) {
+					new CheckDependencyVersionsReport(project, BUILDSCRIPT_SECTION,
+							CHECK_BUILDSCRIPT_DEPENDENCY_VERSIONS_REPORT_TITLE, reportWriter, baseline)
+									.reportDependencyVersions(buildscriptDependencyMap, buildscriptRequest);
+					new CheckDependencyVersionsReport(project, PROJECT_SECTION,
+							CHECK_PROJECT_DEPENDENCY_VERSIONS_REPORT_TITLE, reportWriter, baseline)
+									.reportDependencyVersions(projectDependencyMap, projectRequest);
+					new CheckDependencyVersionsReport(project, CATALOG_SECTION,
+							CHECK_CATALOG_DEPENDENCY_VERSIONS_REPORT_TITLE, reportWriter, baseline)
+									.reportDependencyVersions(catalogDependencyMap, catalogRequest);
+				}
+				lookup.getStatistics().report(getLogger());
+				lookup.getStatistics().write(DependencyVersionsReportWriter.getStatisticsFile(this));
+			} catch (IOException e) {
+				throw new TaskExecutionException(this, e);
+			}
+		} finally {
+			// Not needed any longer
+			this.checkedDependencies = null;
+			ProjectLogger.leaveProject();
+		}
 	}
 
-	private ArtifactVersionId getCandidateArtifactVersionId(ModuleComponentIdentifier candidate) {
-		return new ArtifactVersionId(candidate.getGroup(), candidate.getModule(), candidate.getVersion());
+	private static Configuration createCheckConfiguration(ConfigurationContainer configurations) {
+		// A detached configuration is neither part of the checked configurations nor affected by the check
+		return configurations.detachedConfiguration().setVisible(false).setTransitive(false);
 	}
 
 }
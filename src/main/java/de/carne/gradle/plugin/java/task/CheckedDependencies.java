@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.gradle.api.Project;
+
+import de.carne.gradle.plugin.java.ext.CheckDependencyVersions;
+
+/**
+ * The {@linkplain DependencyMap}s checked by a dependency version check task.
+ * <p>
+ * Collecting the declared dependencies is expensive for huge builds. Hence they are collected only once per task
+ * execution and shared between the task's input fingerprint and its action. The transitive dependencies are added by
+ * the task action only (walking them requires the configurations to be resolved, which must not happen while
+ * fingerprinting the task's inputs).
+ */
+class CheckedDependencies {
+
+	private final Map<Project, DependencyMap> buildscriptDependencyMaps = new LinkedHashMap<>();
+	private final Map<Project, DependencyMap> projectDependencyMaps = new LinkedHashMap<>();
+	private final DependencyMap catalogDependencyMap;
+
+	CheckedDependencies(Project project, Iterable<Project> checkedProjects,
+			CheckDependencyVersions checkDependencyVersions) {
+		for (Project checkedProject : checkedProjects) {
+			this.buildscriptDependencyMaps.put(checkedProject, DependencyMap.fromBuildscript(checkedProject));
+			this.projectDependencyMaps.put(checkedProject, DependencyMap.fromProject(checkedProject));
+		}
+		this.catalogDependencyMap = VersionCatalog.getDependencyMap(project, checkDependencyVersions);
+	}
+
+	public void addTransitiveDependencies(Project project, DependencyGraphWalker walker) {
+		getBuildscriptDependencyMap(project).addTransitiveDependencies(project,
+				project.getBuildscript().getConfigurations(), walker);
+		getProjectDependencyMap(project).addTransitiveDependencies(project, project.getConfigurations(), walker);
+	}
+
+	public DependencyMap getBuildscriptDependencyMap(Project project) {
+		return Objects.requireNonNull(this.buildscriptDependencyMaps.get(project));
+	}
+
+	public DependencyMap getProjectDependencyMap(Project project) {
+		return Objects.requireNonNull(this.projectDependencyMaps.get(project));
+	}
+
+	public DependencyMap getCatalogDependencyMap() {
+		return this.catalogDependencyMap;
+	}
+
+	public String getDeclarations() {
+		StringBuilder declarations = new StringBuilder();
+
+		this.buildscriptDependencyMaps.forEach((project, buildscriptDependencyMap) -> {
+			declarations.append(buildscriptDependencyMap.getDeclarations());
+			declarations.append(LatestVersionLookup.getRepositoryKeys(project.getBuildscript().getRepositories()));
+			declarations.append(getProjectDependencyMap(project).getDeclarations());
+			declarations.append(LatestVersionLookup.getRepositoryKeys(project.getRepositories()));
+		});
+		declarations.append(this.catalogDependencyMap.getDeclarations());
+		return declarations.toString();
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ResolveException;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+
+import de.carne.gradle.plugin.java.util.ProjectLogger;
+
+/**
+ * Walks the resolved dependency graphs of configurations to collect the transitive dependencies.
+ * <p>
+ * A single walker instance is shared by all check tasks of a build (see {@linkplain LatestVersionLookupService}). The
+ * subgraph below every component variant directly required by a walked configuration is memoized per selected
+ * component and variant. Any further configuration (of the same or another project) reaching an already walked
+ * variant simply replays the collected modules instead of walking the subgraph again. As the versions selected within
+ * a subgraph may differ between graphs due to conflict resolution, the replayed modules reflect the versions selected
+ * by the graph walking the subgraph first. The latest versions are looked up per artifact; hence this only affects the
+ * reported current versions of transitive dependencies. Only the resolution result graph (requiring the module
+ * metadata) is walked; the actual artifacts are never resolved.
+ */
+class DependencyGraphWalker {
+
+	private static final char VARIANT_SEPARATOR = '#';
+
+	private final Map<String, List<ModuleVersionIdentifier>> walkedVariants = new ConcurrentHashMap<>();
+
+	public void walk(Configuration configuration, Consumer<ModuleVersionIdentifier> moduleConsumer) {
+		if (configuration.isCanBeResolved()) {
+			Set<ModuleVersionIdentifier> modules = new LinkedHashSet<>();
+
+			try {
+				for (DependencyResult dependency : configuration.getIncoming().getResolutionResult().getRoot()
+						.getDependencies()) {
+					if (isResolvedEdge(dependency)) {
+						modules.addAll(walkVariant((ResolvedDependencyResult) dependency));
+					}
+				}
+			} catch (ResolveException e) {
+				ProjectLogger.warn("Ignoring unresolvable configuration " + configuration.getName(), e);
+			}
+			// Every module is reported only once per configuration
+			modules.forEach(moduleConsumer);
+		}
+	}
+
+	private List<ModuleVersionIdentifier> walkVariant(ResolvedDependencyResult dependency) {
+		String variantKey = getVariantKey(dependency);
+		List<ModuleVersionIdentifier> modules = this.walkedVariants.get(variantKey);
+
+		if (modules == null) {
+			modules = walkSubgraph(dependency, variantKey);
+			this.walkedVariants.putIfAbsent(variantKey, modules);
+		}
+		return modules;
+	}
+
+	private List<ModuleVersionIdentifier> walkSubgraph(ResolvedDependencyResult start, String startKey) {
+		Set<String> visitedVariants = new HashSet<>();
+		Set<ModuleVersionIdentifier> modules = new LinkedHashSet<>();
+		Deque<ResolvedDependencyResult> pending = new ArrayDeque<>();
+
+		visitedVariants.add(startKey);
+		pending.add(start);
+		while (!pending.isEmpty()) {
+			ResolvedDependencyResult dependency = pending.remove();
+			ResolvedComponentResult selected = dependency.getSelected();
+
+			if (selected.getId() instanceof ModuleComponentIdentifier) {
+				ModuleVersionIdentifier moduleVersion = selected.getModuleVersion();
+
+				if (moduleVersion != null) {
+					modules.add(moduleVersion);
+				}
+			}
+			// Only follow the dependencies of the actually selected variant (e.g. api and runtime variants of the
+			// same component may have different dependencies)
+			for (DependencyResult variantDependency : selected
+					.getDependenciesForVariant(dependency.getResolvedVariant())) {
+				if (isResolvedEdge(variantDependency)) {
+					ResolvedDependencyResult resolvedVariantDependency = (ResolvedDependencyResult) variantDependency;
+					String variantKey = getVariantKey(resolvedVariantDependency);
+
+					if (visitedVariants.add(variantKey)) {
+						List<ModuleVersionIdentifier> walkedModules = this.walkedVariants.get(variantKey);
+
+						if (walkedModules != null) {
+							modules.addAll(walkedModules);
+						} else {
+							pending.add(resolvedVariantDependency);
+						}
+					}
+				}
+			}
+		}
+		return new ArrayList<>(modules);
+	}
+
+	private static boolean isResolvedEdge(DependencyResult dependency) {
+		// Constraints do not add any edge to the graph; unresolved dependencies are ignored
+		return !dependency.isConstraint() && dependency instanceof ResolvedDependencyResult;
+	}
+
+	private static String getVariantKey(ResolvedDependencyResult dependency) {
+		return dependency.getSelected().getId().getDisplayName() + VARIANT_SEPARATOR
+				+ dependency.getResolvedVariant().getDisplayName();
+	}
+
+}
@@ -16,13 +16,7 @@
  */
 package de.carne.gradle.plugin.java.task;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Objects;
-import java.util.StringTokenizer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
@@ -35,51 +29,16 @@ class DependencyKey implements Comparable<DependencyKey> {
 	private final String configurationName;
 	private final String dependencyGroup;
 	private final String dependencyName;
-	private final String dependencyVersion;
-	private final List<Object> sortKey = new ArrayList<>();
+	private final Version dependencyVersion;
 
 	DependencyKey(String projectName, String configurationName, String dependencyGroup, String dependencyName,
 			@Nullable String dependencyVersion) {
-		this.projectName = projectName;
-		this.configurationName = configurationName;
-		this.dependencyGroup = dependencyGroup;
-		this.dependencyName = dependencyName;
-		this.dependencyVersion = Strings.safe(dependencyVersion);
-		initSortKey();
-	}
-
-	private static final Pattern DEPENDENCY_VERSION_TOKEN_PATTERN = Pattern.compile("(\\d*)(.*)");
-
-	private void initSortKey() {
-		this.sortKey.add(this.projectName);
-		this.sortKey.add(this.configurationName);
-		this.sortKey.add(this.dependencyGroup);
-		this.sortKey.add(this.dependencyName);
-
-		StringTokenizer tokens = new StringTokenizer(this.dependencyVersion, ".", false);
-
-		while (tokens.hasMoreElements()) {
-			String token = tokens.nextToken();
-			Matcher tokenMatcher = DEPENDENCY_VERSION_TOKEN_PATTERN.matcher(token);
-
-			if (tokenMatcher.lookingAt()) {
-				String tokenDigits = Objects.requireNonNull(tokenMatcher.group(1));
-				String tokenSuffix = Objects.requireNonNull(tokenMatcher.group(2));
-
-				try {
-					Integer tokenValue = Integer.parseInt(tokenDigits);
-
-					this.sortKey.add(tokenValue);
-					this.sortKey.add(tokenSuffix);
-				} catch (@SuppressWarnings("unused") NumberFormatException e) {
-					this.sortKey.add(token);
-					this.sortKey.add("");
-				}
-			} else {
-				this.sortKey.add(token);
-				this.sortKey.add("");
-			}
-		}
+		// Names are highly redundant (especially in multi-project builds), hence share them
+		this.projectName = projectName.intern();
+		this.configurationName = configurationName.intern();
+		this.dependencyGroup = dependencyGroup.intern();
+		this.dependencyName = dependencyName.intern();
+		this.dependencyVersion = Version.valueOf(Strings.safe(dependencyVersion));
 	}
 
 	public String getProject() {
@@ -100,19 +59,13 @@ class DependencyKey implements Comparable<DependencyKey> {
 
 	@Override
 	public int compareTo(@NonNull DependencyKey o) {
-		Iterator<Object> thisTokens = this.sortKey.iterator();
-		Iterator<Object> oTokens = o.sortKey.iterator();
-		int comparison = 0;
-
-		while (comparison == 0 && (thisTokens.hasNext() || oTokens.hasNext())) {
-			Object thisToken = (thisTokens.hasNext() ? thisTokens.next() : "");
-			Object oToken = (oTokens.hasNext() ? oTokens.next() : "");
-
-			if (thisToken instanceof Integer && oToken instanceof Integer) {
-				comparison = ((Integer) thisToken).compareTo((Integer) oToken);
-			} else {
-				comparison = thisToken.toString().compareTo(oToken.toString());
-			}
+		int comparison;
+
+		if ((comparison = this.projectName.compareTo(o.projectName)) == 0
+				&& (comparison = this.configurationName.compareTo(o.configurationName)) == 0
+				&& (comparison = this.dependencyGroup.compareTo(o.dependencyGroup)) == 0
+				&& (comparison = this.dependencyName.compareTo(o.dependencyName)) == 0) {
+			comparison = this.dependencyVersion.compareTo(o.dependencyVersion);
 		}
 		return comparison;
 	}
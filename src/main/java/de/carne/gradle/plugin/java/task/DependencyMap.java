@@ -16,23 +16,42 @@
  */
 package de.carne.gradle.plugin.java.task;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.Objects;
-import java.util.TreeMap;
 
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ConfigurationContainer;
 import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.artifacts.ExternalDependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.initialization.dsl.ScriptHandler;
 
+import de.carne.gradle.plugin.java.util.Strings;
+
 /**
- *
+ * Sorted set of the {@linkplain DependencyKey}s collected from a project's configurations.
+ * <p>
+ * The keys are kept in a flat array which is sorted (and freed from duplicates) on first access after any update.
+ * Neither the keys nor the map retain any Gradle model objects (all names are interned), hence even huge builds keep
+ * the memory footprint of the collected declarations small.
  */
-class DependencyMap extends TreeMap<DependencyKey, DependencyHolder> {
+class DependencyMap implements Iterable<DependencyKey> {
+
+	private static final DependencyKey[] NO_KEYS = new DependencyKey[0];
+	private static final int INITIAL_CAPACITY = 16;
 
-	// Serialization support
-	private static final long serialVersionUID = -3996197953181906688L;
+	private DependencyKey[] keys = NO_KEYS;
+	private int size = 0;
+	private boolean sorted = true;
+
+	DependencyMap() {
+		// Nothing to do here
+	}
 
 	private DependencyMap(Project project, ScriptHandler buildscript) {
 		addConfigurations(project, buildscript.getConfigurations());
@@ -46,10 +65,88 @@ class DependencyMap extends TreeMap<DependencyKey, DependencyHolder> {
 		return new DependencyMap(project);
 	}
 
+	public static DependencyMap fromVersionCatalog(Project project, File catalogFile) {
+		DependencyMap dependencyMap = new DependencyMap();
+		String catalogName = catalogFile.getName();
+
+		VersionCatalog.read(catalogFile, artifactVersionId -> {
+			ArtifactId artifactId = artifactVersionId.getArtifactId();
+
+			dependencyMap.add(new DependencyKey(project.getName(), catalogName, artifactId.getGroup(),
+					artifactId.getName(), artifactVersionId.getVersion()));
+		});
+		return dependencyMap;
+	}
+
 	public static DependencyMap fromBuildscript(Project project) {
 		return new DependencyMap(project, project.getBuildscript());
 	}
 
+	public String getDeclarations() {
+		StringBuilder declarations = new StringBuilder();
+
+		for (DependencyKey dependencyKey : this) {
+			declarations.append(dependencyKey).append('\n');
+		}
+		return declarations.toString();
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public int size() {
+		sort();
+		return this.size;
+	}
+
+	public void addAll(DependencyMap dependencyMap) {
+		for (int keyIndex = 0; keyIndex < dependencyMap.size; keyIndex++) {
+			add(dependencyMap.keys[keyIndex]);
+		}
+	}
+
+	@Override
+	public Iterator<DependencyKey> iterator() {
+		sort();
+		return Collections.unmodifiableList(Arrays.asList(this.keys).subList(0, this.size)).iterator();
+	}
+
+	private void add(DependencyKey dependencyKey) {
+		if (this.size == this.keys.length) {
+			this.keys = Arrays.copyOf(this.keys, Math.max(INITIAL_CAPACITY, this.size * 2));
+		}
+		this.keys[this.size++] = dependencyKey;
+		this.sorted = false;
+	}
+
+	private void sort() {
+		if (!this.sorted) {
+			Arrays.sort(this.keys, 0, this.size);
+
+			int uniqueSize = 0;
+
+			for (int keyIndex = 0; keyIndex < this.size; keyIndex++) {
+				if (uniqueSize == 0 || this.keys[uniqueSize - 1].compareTo(this.keys[keyIndex]) != 0) {
+					this.keys[uniqueSize++] = this.keys[keyIndex];
+				}
+			}
+			// Trim to the actual size; a later update (e.g. addAll) simply grows the array again
+			this.keys = Arrays.copyOf(this.keys, uniqueSize);
+			this.size = uniqueSize;
+			this.sorted = true;
+		}
+	}
+
+	public void addTransitiveDependencies(Project project, ConfigurationContainer configurations,
+			DependencyGraphWalker walker) {
+		// Iterate a copy, as resolving a configuration may realize further configurations
+		for (Configuration configuration : new ArrayList<>(configurations)) {
+			walker.walk(configuration, moduleVersion -> addTransitiveDependency(project, configuration,
+					Objects.requireNonNull(moduleVersion)));
+		}
+	}
+
 	private void addConfigurations(Project project, ConfigurationContainer configurations) {
 		configurations.forEach(configuration -> addConfiguration(project, Objects.requireNonNull(configuration)));
 	}
@@ -59,12 +156,16 @@ class DependencyMap extends TreeMap<DependencyKey, DependencyHolder> {
 				.forEach(dependency -> addDependency(project, configuration, Objects.requireNonNull(dependency)));
 	}
 
+	private void addTransitiveDependency(Project project, Configuration configuration,
+			ModuleVersionIdentifier moduleVersion) {
+		add(new DependencyKey(project.getName(), configuration.getName(), moduleVersion.getGroup(),
+				moduleVersion.getName(), moduleVersion.getVersion()));
+	}
+
 	private void addDependency(Project project, Configuration configuration, Dependency dependency) {
 		if (dependency instanceof ExternalDependency) {
-			DependencyHolder dependencyHolder = new DependencyHolder(project, configuration,
-					(ExternalDependency) dependency);
-
-			put(dependencyHolder, dependencyHolder);
+			add(new DependencyKey(project.getName(), configuration.getName(), Strings.safe(dependency.getGroup()),
+					dependency.getName(), dependency.getVersion()));
 		}
 	}
 
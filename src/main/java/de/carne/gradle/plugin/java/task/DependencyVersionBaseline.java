@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.carne.gradle.plugin.java.ext.CheckDependencyVersions;
+import de.carne.gradle.plugin.java.util.ProjectLogger;
+
+/**
+ * Baseline of accepted latest dependency versions.
+ * <p>
+ * The baseline file consists of lines of the form {@code group:name=timestamp:version} (the timestamp records when
+ * the version has been looked up and may be omitted for manually added entries). A dependency whose latest version
+ * matches the accepted one is not reported as outdated. As long as an entry is not expired it is used as the latest
+ * version without performing any lookup. Entries are written in sorted order to keep the file diff-friendly.
+ * <p>
+ * Updates are merged into the current file state (the baseline file may be shared by the check tasks of several
+ * projects) and written via an atomic file move.
+ */
+class DependencyVersionBaseline {
+
+	private static final String BASELINE_FILE_HEADER = "# Accepted dependency versions (update via --update-baseline)";
+
+	private final Path baselineFile;
+	private final long ttl;
+	private final Map<ArtifactId, Entry> entries;
+	private final Map<ArtifactId, Entry> updatedEntries = new HashMap<>();
+	private final Set<ArtifactId> removedEntries = new HashSet<>();
+
+	DependencyVersionBaseline(File baselineFile, long ttl) {
+		this.baselineFile = baselineFile.toPath();
+		this.ttl = ttl;
+		this.entries = loadEntries(this.baselineFile);
+	}
+
+	@Nullable
+	public static DependencyVersionBaseline open(CheckDependencyVersions checkDependencyVersions) {
+		File baselineFile = checkDependencyVersions.getBaselineFile();
+
+		return (baselineFile != null
+				? new DependencyVersionBaseline(baselineFile,
+						TimeUnit.HOURS.toMillis(checkDependencyVersions.getCacheTtl()))
+				: null);
+	}
+
+	public File getFile() {
+		return this.baselineFile.toFile();
+	}
+
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	@Nullable
+	public synchronized LatestVersion get(ArtifactId artifactId) {
+		Entry entry = this.entries.get(artifactId);
+
+		return (entry != null && System.currentTimeMillis() - entry.timestamp < this.ttl
+				? new LatestVersion(new ArtifactVersionId(artifactId.getGroup(), artifactId.getName(), entry.version),
+						entry.timestamp, false)
+				: null);
+	}
+
+	public synchronized boolean isAccepted(LatestVersion latestVersion) {
+		ArtifactVersionId latestArtifactVersionId = latestVersion.getArtifactVersionId();
+		Entry entry = this.entries.get(latestArtifactVersionId.getArtifactId());
+
+		// Compare the parsed versions to accept equivalent version strings (e.g. 1.0 and 1.0.0)
+		return entry != null
+				&& Version.valueOf(entry.version).equals(Version.valueOf(latestArtifactVersionId.getVersion()));
+	}
+
+	public synchronized void putAll(LatestVersionLookup.Request request) {
+		request.getLatestVersions().forEach((artifactId, latestVersion) -> {
+			ArtifactVersionId latestArtifactVersionId = latestVersion.getArtifactVersionId();
+
+			// Only drift needs to be accepted (entries of dependencies without drift are dropped)
+			if (request.artifactIndex.getVersions(artifactId).stream()
+					.anyMatch(version -> version.compareTo(latestArtifactVersionId) != 0)) {
+				this.updatedEntries.put(artifactId,
+						new Entry(latestVersion.getTimestamp(), latestArtifactVersionId.getVersion()));
+				this.removedEntries.remove(artifactId);
+			} else if (!this.updatedEntries.containsKey(artifactId)) {
+				this.removedEntries.add(artifactId);
+			}
+		});
+	}
+
+	public synchronized void save() throws IOException {
+		Path baselineDir = this.baselineFile.toAbsolutePath().getParent();
+
+		Files.createDirectories(baselineDir);
+
+		// Merge our updates into the current file state (which may have been updated by another task)
+		Map<ArtifactId, Entry> savedEntries = loadEntries(this.baselineFile);
+
+		savedEntries.keySet().removeAll(this.removedEntries);
+		savedEntries.putAll(this.updatedEntries);
+
+		Path tmpBaselineFile = Files.createTempFile(baselineDir, this.baselineFile.getFileName().toString(), ".tmp");
+
+		try {
+			try (Writer baselineWriter = Files.newBufferedWriter(tmpBaselineFile, StandardCharsets.UTF_8)) {
+				baselineWriter.write(BASELINE_FILE_HEADER);
+				baselineWriter.write(System.lineSeparator());
+				for (Map.Entry<ArtifactId, Entry> entry : savedEntries.entrySet()) {
+					baselineWriter.write(entry.getKey() + "=" + entry.getValue());
+					baselineWriter.write(System.lineSeparator());
+				}
+			}
+			try {
+				Files.move(tmpBaselineFile, this.baselineFile, StandardCopyOption.ATOMIC_MOVE,
+						StandardCopyOption.REPLACE_EXISTING);
+			} catch (@SuppressWarnings("unused") AtomicMoveNotSupportedException e) {
+				Files.move(tmpBaselineFile, this.baselineFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmpBaselineFile);
+		}
+		this.entries.clear();
+		this.entries.putAll(savedEntries);
+		this.updatedEntries.clear();
+		this.removedEntries.clear();
+	}
+
+	private static Map<ArtifactId, Entry> loadEntries(Path baselineFile) {
+		Map<ArtifactId, Entry> entries = new TreeMap<>();
+
+		if (Files.exists(baselineFile)) {
+			try (BufferedReader baselineReader = Files.newBufferedReader(baselineFile, StandardCharsets.UTF_8)) {
+				String line;
+
+				while ((line = baselineReader.readLine()) != null) {
+					loadEntry(entries, line.trim());
+				}
+			} catch (IOException e) {
+				ProjectLogger.warn("Ignoring unreadable dependency version baseline file " + baselineFile, e);
+			}
+		}
+		return entries;
+	}
+
+	private static void loadEntry(Map<ArtifactId, Entry> entries, String line) {
+		int valueIndex = line.indexOf('=');
+		int nameIndex = (valueIndex > 0 ? line.lastIndexOf(':', valueIndex) : -1);
+
+		if (!line.startsWith("#") && nameIndex > 0) {
+			Entry entry = Entry.valueOf(line.substring(valueIndex + 1).trim());
+
+			if (entry != null) {
+				entries.put(new ArtifactId(line.substring(0, nameIndex).trim(),
+						line.substring(nameIndex + 1, valueIndex).trim()), entry);
+			}
+		}
+	}
+
+	private static class Entry {
+
+		final long timestamp;
+		final String version;
+
+		Entry(long timestamp, String version) {
+			this.timestamp = timestamp;
+			this.version = version;
+		}
+
+		@Nullable
+		static Entry valueOf(String value) {
+			int separatorIndex = value.indexOf(':');
+			long timestamp = 0;
+			String version = value;
+
+			if (separatorIndex > 0) {
+				try {
+					timestamp = Long.parseLong(value.substring(0, separatorIndex));
+					version = value.substring(separatorIndex + 1);
+				} catch (@SuppressWarnings("unused") NumberFormatException e) {
+					// Manually added entry without timestamp
+				}
+			}
+			return (!version.isEmpty() ? new Entry(timestamp, version) : null);
+		}
+
+		@Override
+		public String toString() {
+			return this.timestamp + ":" + this.version;
+		}
+
+	}
+
+}
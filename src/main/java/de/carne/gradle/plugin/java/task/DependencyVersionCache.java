@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.carne.gradle.plugin.java.util.ProjectLogger;
+
+/**
+ * Persistent cache of looked up latest dependency versions.
+ * <p>
+ * A cache file is maintained per repository set. Updates are merged into the current cache file state and written
+ * via an atomic file move, hence concurrent builds sharing the same cache directory never see a partially written
+ * cache file (at worst an entry stored by a concurrent build is lost and looked up again). Within a build the cache
+ * is safe to be accessed by multiple threads.
+ */
+class DependencyVersionCache {
+
+	private static final String CACHE_DIR_NAME = "dependency-versions";
+	private static final String CACHE_FILE_SUFFIX = ".properties";
+
+	private final Path cacheFile;
+	private final long ttl;
+	private final Map<String, Entry> entries;
+	private final Map<String, Entry> updatedEntries = new HashMap<>();
+
+	DependencyVersionCache(File cacheDir, List<String> repositories, long ttl) {
+		this.cacheFile = cacheDir.toPath().resolve(CACHE_DIR_NAME)
+				.resolve(getRepositoriesKey(repositories) + CACHE_FILE_SUFFIX);
+		this.ttl = ttl;
+		this.entries = loadEntries(this.cacheFile);
+	}
+
+	@Nullable
+	public synchronized LatestVersion get(ArtifactId artifactId, String selector) {
+		LatestVersion latestVersion = getAny(artifactId, selector);
+
+		return (latestVersion != null && !latestVersion.isStale() ? latestVersion : null);
+	}
+
+	@Nullable
+	public synchronized LatestVersion getAny(ArtifactId artifactId, String selector) {
+		Entry entry = this.entries.get(getEntryKey(artifactId, selector));
+
+		return (entry != null
+				? new LatestVersion(new ArtifactVersionId(artifactId.getGroup(), artifactId.getName(), entry.version),
+						entry.timestamp, !isFresh(entry))
+				: null);
+	}
+
+	public synchronized void put(ArtifactId artifactId, String selector, LatestVersion latestVersion) {
+		if (this.ttl > 0) {
+			String entryKey = getEntryKey(artifactId, selector);
+			Entry entry = new Entry(latestVersion.getTimestamp(), latestVersion.getArtifactVersionId().getVersion());
+
+			this.entries.put(entryKey, entry);
+			this.updatedEntries.put(entryKey, entry);
+		}
+	}
+
+	public synchronized void save() throws IOException {
+		if (!this.updatedEntries.isEmpty()) {
+			Path cacheDir = this.cacheFile.getParent();
+
+			Files.createDirectories(cacheDir);
+
+			// Merge our updates into the current file state (which may have been updated by a concurrent build)
+			Map<String, Entry> savedEntries = loadEntries(this.cacheFile);
+
+			this.updatedEntries.forEach((entryKey, entry) -> savedEntries.merge(entryKey, entry,
+					(savedEntry, updatedEntry) -> (savedEntry.timestamp < updatedEntry.timestamp ? updatedEntry
+							: savedEntry)));
+
+			Properties cacheProperties = new Properties();
+
+			savedEntries.forEach((entryKey, entry) -> cacheProperties.setProperty(entryKey, entry.toString()));
+
+			Path tmpCacheFile = Files.createTempFile(cacheDir, this.cacheFile.getFileName().toString(), ".tmp");
+
+			try {
+				try (OutputStream cacheStream = Files.newOutputStream(tmpCacheFile)) {
+					cacheProperties.store(cacheStream, null);
+				}
+				try {
+					Files.move(tmpCacheFile, this.cacheFile, StandardCopyOption.ATOMIC_MOVE,
+							StandardCopyOption.REPLACE_EXISTING);
+				} catch (@SuppressWarnings("unused") AtomicMoveNotSupportedException e) {
+					Files.move(tmpCacheFile, this.cacheFile, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(tmpCacheFile);
+			}
+			this.updatedEntries.clear();
+		}
+	}
+
+	private boolean isFresh(Entry entry) {
+		return System.currentTimeMillis() - entry.timestamp < this.ttl;
+	}
+
+	private static Map<String, Entry> loadEntries(Path cacheFile) {
+		Map<String, Entry> entries = new HashMap<>();
+
+		if (Files.exists(cacheFile)) {
+			Properties cacheProperties = new Properties();
+
+			try (InputStream cacheStream = Files.newInputStream(cacheFile)) {
+				cacheProperties.load(cacheStream);
+			} catch (IOException e) {
+				ProjectLogger.warn("Ignoring unreadable dependency version cache file " + cacheFile, e);
+			}
+			for (String entryKey : cacheProperties.stringPropertyNames()) {
+				Entry entry = Entry.valueOf(cacheProperties.getProperty(entryKey));
+
+				if (entry != null) {
+					entries.put(entryKey, entry);
+				}
+			}
+		}
+		return entries;
+	}
+
+	private static String getEntryKey(ArtifactId artifactId, String selector) {
+		return artifactId + ":" + selector;
+	}
+
+	private static String getRepositoriesKey(List<String> repositories) {
+		StringBuilder key = new StringBuilder();
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+			for (String repository : repositories) {
+				digest.update(repository.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			for (byte digestByte : digest.digest()) {
+				key.append(String.format("%02x", digestByte & 0xff));
+			}
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Missing standard digest algorithm", e);
+		}
+		return key.toString();
+	}
+
+	private static class Entry {
+
+		final long timestamp;
+		final String version;
+
+		Entry(long timestamp, String version) {
+			this.timestamp = timestamp;
+			this.version = version;
+		}
+
+		@Nullable
+		static Entry valueOf(@Nullable String value) {
+			Entry entry = null;
+			int separatorIndex = (value != null ? value.indexOf(':') : -1);
+
+			if (value != null && separatorIndex > 0) {
+				try {
+					entry = new Entry(Long.parseLong(value.substring(0, separatorIndex)),
+							value.substring(separatorIndex + 1));
+				} catch (@SuppressWarnings("unused") NumberFormatException e) {
+					// Ignore invalid entry
+				}
+			}
+			return entry;
+		}
+
+		@Override
+		public String toString() {
+			return this.timestamp + ":" + this.version;
+		}
+
+	}
+
+}
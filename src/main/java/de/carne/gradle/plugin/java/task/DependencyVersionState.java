@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.carne.gradle.plugin.java.util.OutputWriter;
+import de.carne.gradle.plugin.java.util.ProjectLogger;
+
+/**
+ * Task local state remembering the latest dependency versions of the previous task execution.
+ * <p>
+ * Every entry records a fingerprint of the artifact's declarations (and the repositories used to look it up). An
+ * entry is only re-used as long as the artifact's declarations have not been changed and the entry is not expired.
+ * The state is rewritten on every task execution, hence artifacts no longer declared are dropped automatically.
+ * Stale (possibly outdated) results are not recorded; the state is marked incomplete instead, hence the next task
+ * execution is never considered up-to-date.
+ */
+class DependencyVersionState {
+
+	private static final String COMPLETE_KEY = "complete";
+
+	private final Path stateFile;
+	private final long ttl;
+	private final Map<String, Entry> previousEntries;
+	private final Map<String, Entry> currentEntries = new HashMap<>();
+	private boolean complete = true;
+
+	DependencyVersionState(File stateFile, long ttl) {
+		this.stateFile = stateFile.toPath();
+		this.ttl = ttl;
+		this.previousEntries = (ttl > 0 ? loadEntries(this.stateFile) : new HashMap<>());
+	}
+
+	public static String getFingerprint(List<String> repositoryKeys, String declarations) {
+		StringBuilder fingerprint = new StringBuilder();
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+			for (String repositoryKey : repositoryKeys) {
+				digest.update(repositoryKey.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			digest.update(declarations.getBytes(StandardCharsets.UTF_8));
+			for (byte digestByte : digest.digest()) {
+				fingerprint.append(String.format("%02x", digestByte & 0xff));
+			}
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Missing standard digest algorithm", e);
+		}
+		return fingerprint.toString();
+	}
+
+	public static boolean isUpToDate(File stateFile, long ttl) {
+		boolean upToDate = false;
+
+		if (ttl > 0) {
+			Path statePath = stateFile.toPath();
+			Properties stateProperties = loadStateProperties(statePath);
+			Map<String, Entry> entries = getEntries(stateProperties);
+			long now = System.currentTimeMillis();
+
+			// An empty, unreadable or incomplete state cannot prove anything
+			upToDate = Boolean.parseBoolean(stateProperties.getProperty(COMPLETE_KEY)) && !entries.isEmpty()
+					&& entries.values().stream().allMatch(entry -> now - entry.timestamp < ttl);
+		}
+		return upToDate;
+	}
+
+	@Nullable
+	public synchronized LatestVersion get(String section, ArtifactId artifactId, String fingerprint) {
+		Entry entry = this.previousEntries.get(getEntryKey(section, artifactId));
+
+		return (entry != null && entry.fingerprint.equals(fingerprint)
+				&& System.currentTimeMillis() - entry.timestamp < this.ttl
+						? new LatestVersion(
+								new ArtifactVersionId(artifactId.getGroup(), artifactId.getName(), entry.version),
+								entry.timestamp, false)
+						: null);
+	}
+
+	public synchronized void put(String section, ArtifactId artifactId, String fingerprint,
+			LatestVersion latestVersion) {
+		if (latestVersion.isStale()) {
+			this.complete = false;
+		} else if (this.ttl > 0) {
+			this.currentEntries.put(getEntryKey(section, artifactId), new Entry(fingerprint,
+					latestVersion.getTimestamp(), latestVersion.getArtifactVersionId().getVersion()));
+		}
+	}
+
+	public synchronized void save() throws IOException {
+		Properties stateProperties = new Properties();
+
+		this.currentEntries.forEach((entryKey, entry) -> stateProperties.setProperty(entryKey, entry.toString()));
+		stateProperties.setProperty(COMPLETE_KEY, Boolean.toString(this.complete));
+
+		ByteArrayOutputStream stateBytes = new ByteArrayOutputStream();
+
+		stateProperties.store(stateBytes, null);
+		// Never leave a partially written state behind (it would be taken for a valid one)
+		OutputWriter.updateFile(this.stateFile, stateBytes.toByteArray());
+	}
+
+	private static Map<String, Entry> loadEntries(Path stateFile) {
+		return getEntries(loadStateProperties(stateFile));
+	}
+
+	private static Properties loadStateProperties(Path stateFile) {
+		Properties stateProperties = new Properties();
+
+		if (Files.exists(stateFile)) {
+			try (InputStream stateStream = Files.newInputStream(stateFile)) {
+				stateProperties.load(stateStream);
+			} catch (IOException e) {
+				ProjectLogger.warn("Ignoring unreadable dependency version state file " + stateFile, e);
+				stateProperties.clear();
+			}
+		}
+		return stateProperties;
+	}
+
+	private static Map<String, Entry> getEntries(Properties stateProperties) {
+		Map<String, Entry> entries = new HashMap<>();
+
+		for (String entryKey : stateProperties.stringPropertyNames()) {
+			Entry entry = (!COMPLETE_KEY.equals(entryKey) ? Entry.valueOf(stateProperties.getProperty(entryKey))
+					: null);
+
+			if (entry != null) {
+				entries.put(entryKey, entry);
+			}
+		}
+		return entries;
+	}
+
+	private static String getEntryKey(String section, ArtifactId artifactId) {
+		return section + ":" + artifactId;
+	}
+
+	private static class Entry {
+
+		final String fingerprint;
+		final long timestamp;
+		final String version;
+
+		Entry(String fingerprint, long timestamp, String version) {
+			this.fingerprint = fingerprint;
+			this.timestamp = timestamp;
+			this.version = version;
+		}
+
+		@Nullable
+		static Entry valueOf(@Nullable String value) {
+			Entry entry = null;
+			String[] fields = (value != null ? value.split(":", 3) : new String[0]);
+
+			if (fields.length == 3) {
+				try {
+					entry = new Entry(fields[0], Long.parseLong(fields[1]), fields[2]);
+				} catch (@SuppressWarnings("unused") NumberFormatException e) {
+					// Ignore invalid entry
+				}
+			}
+			return entry;
+		}
+
+		@Override
+		public String toString() {
+			return this.fingerprint + ":" + this.timestamp + ":" + this.version;
+		}
+
+	}
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Provider;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import de.carne.gradle.plugin.java.ext.CheckDependencyVersions;
+import de.carne.gradle.plugin.java.ext.JavaToolsExtension;
+
+/**
+ * Writes the machine-readable (JSON and/or CSV) dependency version reports.
+ * <p>
+ * Rows are written as soon as they are reported (without collecting them first), hence the memory consumption does
+ * not depend on the number of reported dependencies.
+ * <p>
+ * The report files (as well as the always written lookup statistics file) are declared as task outputs. The task
+ * inputs are defined by the dependency declarations as well as the relevant lookup settings. A task is considered
+ * up-to-date as long as its inputs have not been changed and none of the looked up latest versions is expired.
+ */
+class DependencyVersionsReportWriter implements Closeable {
+
+	private static final String DECLARATIONS_INPUT_NAME = "dependencyDeclarations";
+	private static final String JSON_REPORT_SUFFIX = ".json";
+	private static final String CSV_REPORT_SUFFIX = ".csv";
+	private static final String STATISTICS_SUFFIX = "-statistics.json";
+
+	private static final String[] COLUMNS = { "section", "project", "configuration", "group", "name", "current",
+			"latest", "outdated", "stale", "accepted", "latencyMillis" };
+
+	@Nullable
+	private final JsonGenerator json;
+	@Nullable
+	private final Writer csv;
+
+	DependencyVersionsReportWriter(@Nullable File jsonFile, @Nullable File csvFile) throws IOException {
+		JsonGenerator openedJson = null;
+		Writer openedCsv = null;
+
+		try {
+			if (jsonFile != null) {
+				Files.createDirectories(jsonFile.getParentFile().toPath());
+				openedJson = new JsonFactory().createGenerator(jsonFile, JsonEncoding.UTF8).useDefaultPrettyPrinter();
+				openedJson.writeStartArray();
+			}
+			if (csvFile != null) {
+				Files.createDirectories(csvFile.getParentFile().toPath());
+				openedCsv = Files.newBufferedWriter(csvFile.toPath(), StandardCharsets.UTF_8);
+				writeCsvRow(openedCsv, COLUMNS);
+			}
+		} catch (IOException e) {
+			if (openedJson != null) {
+				openedJson.close();
+			}
+			if (openedCsv != null) {
+				openedCsv.close();
+			}
+			throw e;
+		}
+		this.json = openedJson;
+		this.csv = openedCsv;
+	}
+
+	public static void configureTask(Task task, Provider<RegularFile> stateFile, Callable<String> declarations) {
+		Project project = task.getProject();
+
+		task.getInputs().property(DECLARATIONS_INPUT_NAME, project.provider(() -> DependencyVersionState
+				.getFingerprint(getConfigurationKeys(task), Objects.requireNonNull(declarations.call()))));
+		task.getInputs().files(project.provider(() -> getBaselineFiles(task))).optional();
+		task.getOutputs().files(project.provider(() -> getReportFiles(task)));
+		task.getOutputs().file(project.provider(() -> getStatisticsFile(task)));
+		// Without any report file there is no output to check (and the console report has to be re-issued)
+		task.getOutputs().upToDateWhen(spec -> !getReportFiles(task).isEmpty()
+				&& DependencyVersionState.isUpToDate(stateFile.get().getAsFile(),
+						TimeUnit.HOURS.toMillis(getConfiguration(task).getCacheTtl())));
+	}
+
+	@Nullable
+	public static DependencyVersionsReportWriter open(Task task) throws IOException {
+		File jsonFile = getJsonReportFile(task);
+		File csvFile = getCsvReportFile(task);
+
+		return (jsonFile != null || csvFile != null ? new DependencyVersionsReportWriter(jsonFile, csvFile) : null);
+	}
+
+	public static File getStatisticsFile(Task task) {
+		return new File(getConfiguration(task).getReportDir(), task.getName() + STATISTICS_SUFFIX);
+	}
+
+	private static CheckDependencyVersions getConfiguration(Task task) {
+		return task.getProject().getExtensions().getByType(JavaToolsExtension.class).getCheckDependencyVersions();
+	}
+
+	private static List<String> getConfigurationKeys(Task task) {
+		CheckDependencyVersions checkDependencyVersions = getConfiguration(task);
+
+		return Arrays.asList(checkDependencyVersions.getLookupEngine(),
+				Boolean.toString(checkDependencyVersions.isOffline()),
+				Boolean.toString(checkDependencyVersions.isTransitive()),
+				Boolean.toString(task.getProject().getGradle().getStartParameter().isOffline()),
+				Integer.toString(checkDependencyVersions.getCacheTtl()));
+	}
+
+	private static List<File> getBaselineFiles(Task task) {
+		File baselineFile = getConfiguration(task).getBaselineFile();
+
+		return (baselineFile != null ? Collections.singletonList(baselineFile) : Collections.emptyList());
+	}
+
+	private static List<File> getReportFiles(Task task) {
+		List<File> reportFiles = new ArrayList<>();
+		File jsonFile = getJsonReportFile(task);
+		File csvFile = getCsvReportFile(task);
+
+		if (jsonFile != null) {
+			reportFiles.add(jsonFile);
+		}
+		if (csvFile != null) {
+			reportFiles.add(csvFile);
+		}
+		return reportFiles;
+	}
+
+	@Nullable
+	private static File getJsonReportFile(Task task) {
+		CheckDependencyVersions checkDependencyVersions = getConfiguration(task);
+
+		return (checkDependencyVersions.isJsonReport()
+				? new File(checkDependencyVersions.getReportDir(), task.getName() + JSON_REPORT_SUFFIX)
+				: null);
+	}
+
+	@Nullable
+	private static File getCsvReportFile(Task task) {
+		CheckDependencyVersions checkDependencyVersions = getConfiguration(task);
+
+		return (checkDependencyVersions.isCsvReport()
+				? new File(checkDependencyVersions.getReportDir(), task.getName() + CSV_REPORT_SUFFIX)
+				: null);
+	}
+
+	public void writeRow(String section, String projectName, String configurationName, ArtifactVersionId current,
+			@Nullable LatestVersion latest, boolean accepted, long latency) throws IOException {
+		ArtifactId artifactId = current.getArtifactId();
+		ArtifactVersionId latestArtifactVersionId = (latest != null ? latest.getArtifactVersionId() : null);
+		boolean outdated = latestArtifactVersionId != null && current.compareTo(latestArtifactVersionId) != 0;
+		boolean stale = latest != null && latest.isStale();
+		JsonGenerator checkedJson = this.json;
+
+		if (checkedJson != null) {
+			checkedJson.writeStartObject();
+			checkedJson.writeStringField(COLUMNS[0], section);
+			checkedJson.writeStringField(COLUMNS[1], projectName);
+			checkedJson.writeStringField(COLUMNS[2], configurationName);
+			checkedJson.writeStringField(COLUMNS[3], artifactId.getGroup());
+			checkedJson.writeStringField(COLUMNS[4], artifactId.getName());
+			checkedJson.writeStringField(COLUMNS[5], current.getVersion());
+			if (latestArtifactVersionId != null) {
+				checkedJson.writeStringField(COLUMNS[6], latestArtifactVersionId.getVersion());
+			} else {
+				checkedJson.writeNullField(COLUMNS[6]);
+			}
+			checkedJson.writeBooleanField(COLUMNS[7], outdated);
+			checkedJson.writeBooleanField(COLUMNS[8], stale);
+			checkedJson.writeBooleanField(COLUMNS[9], accepted);
+			if (latency >= 0) {
+				checkedJson.writeNumberField(COLUMNS[10], latency);
+			} else {
+				checkedJson.writeNullField(COLUMNS[10]);
+			}
+			checkedJson.writeEndObject();
+		}
+
+		Writer checkedCsv = this.csv;
+
+		if (checkedCsv != null) {
+			writeCsvRow(checkedCsv, section, projectName, configurationName, artifactId.getGroup(),
+					artifactId.getName(), current.getVersion(),
+					(latestArtifactVersionId != null ? latestArtifactVersionId.getVersion() : ""),
+					Boolean.toString(outdated), Boolean.toString(stale), Boolean.toString(accepted),
+					(latency >= 0 ? Long.toString(latency) : ""));
+		}
+	}
+
+	private static void writeCsvRow(Writer csvWriter, String... fields) throws IOException {
+		for (int fieldIndex = 0; fieldIndex < fields.length; fieldIndex++) {
+			String field = fields[fieldIndex];
+
+			if (fieldIndex > 0) {
+				csvWriter.write(',');
+			}
+			if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0
+					|| field.indexOf('\r') >= 0) {
+				csvWriter.write('"');
+				csvWriter.write(field.replace("\"", "\"\""));
+				csvWriter.write('"');
+			} else {
+				csvWriter.write(field);
+			}
+		}
+		csvWriter.write("\r\n");
+	}
+
+	@Override
+	public void close() throws IOException {
+		JsonGenerator checkedJson = this.json;
+		Writer checkedCsv = this.csv;
+
+		try {
+			if (checkedJson != null) {
+				checkedJson.writeEndArray();
+				checkedJson.close();
+			}
+		} finally {
+			if (checkedCsv != null) {
+				checkedCsv.close();
+			}
+		}
+	}
+
+}
@@ -17,27 +17,59 @@
 package de.carne.gradle.plugin.java.task;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.ResourceBundle;
-import java.util.function.BiConsumer;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.inject.Inject;
+
+import org.eclipse.jdt.annotation.Nullable;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Project;
-import org.gradle.api.file.ConfigurableFileTree;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileType;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.TaskExecutionException;
+import org.gradle.api.tasks.TaskProvider;
 import org.gradle.api.tasks.compile.JavaCompile;
 import org.gradle.language.base.plugins.LifecycleBasePlugin;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
 
 import de.carne.gradle.plugin.java.ext.GenerateI18N;
 import de.carne.gradle.plugin.java.ext.JavaToolsExtension;
@@ -49,99 +81,282 @@ import de.carne.gradle.plugin.java.util.Strings;
 
 /**
  * GenerateI18NTask - Create/update I18N helper classes.
+ * <p>
+ * The task is incremental: only the helper classes of added or modified bundles are regenerated and the helper
+ * classes of removed bundles are deleted. Any change of the generation settings causes a full regeneration.
+ * Helper classes whose generated content did not change are not rewritten, keeping their timestamps stable for
+ * downstream compile tasks. The helper classes are generated in parallel via the Worker API.
  */
-public class GenerateI18NTask extends DefaultTask implements JavaToolsTask {
+public abstract class GenerateI18NTask extends DefaultTask implements JavaToolsTask {
+
+	private static final Logger LOG = Logging.getLogger(GenerateI18NTask.class);
 
 	private static final ResourceBundle TEMPLATES = ResourceBundle.getBundle(GenerateI18NTask.class.getName());
 
+	private static final Pattern LOCALE_SUFFIX_PATTERN = Pattern.compile("_[a-z]{2,3}(_[A-Za-z0-9]+)*");
+
+	private static final String COMPILED_BUNDLE_SUFFIX = "Bundle";
+
+	private static final int COMPILED_BUNDLE_CHUNK_SIZE = 1000;
+
 	private static final String GENERATE_I18N_TASK_GROUP = LifecycleBasePlugin.BUILD_GROUP;
 	private static final String GENERATE_I18N_TASK_NAME = "generateI18N";
 	private static final String GENERATE_I18N_TASK_DESCRIPTION = "Create/update I18N helper classes.";
 
 	/**
-	 * Creates the {@linkplain GenerateI18NTask}.
+	 * Registers the {@linkplain GenerateI18NTask}.
+	 * <p>
+	 * The task is only created and configured if it is actually required by the build.
+	 *
+	 * @param project the {@linkplain Project} to register the task for.
+	 * @return the {@linkplain TaskProvider} of the registered {@linkplain GenerateI18NTask}.
+	 */
+	public static TaskProvider<GenerateI18NTask> register(Project project) {
+		project.getLogger().info("Registering task " + GENERATE_I18N_TASK_NAME);
+		return project.getTasks().register(GENERATE_I18N_TASK_NAME, GenerateI18NTask.class,
+				task -> task.apply(project));
+	}
+
+	/**
+	 * Performs the necessary afterEvalute actions for a registered {@linkplain GenerateI18NTask}.
+	 * <p>
+	 * In difference to {@linkplain #afterEvaluate(Project)} this neither creates the task nor any of the tasks
+	 * depending on it.
 	 *
-	 * @param project the {@linkplain Project} to create the task for.
-	 * @return the created {@linkplain GenerateI18NTask} object.
+	 * @param project the {@linkplain Project} running the task.
+	 * @param taskProvider the {@linkplain TaskProvider} of the registered {@linkplain GenerateI18NTask}.
 	 */
-	public static GenerateI18NTask create(Project project) {
-		project.getLogger().info("Creating task " + GENERATE_I18N_TASK_NAME);
-		return project.getTasks().create(GENERATE_I18N_TASK_NAME, GenerateI18NTask.class);
+	public static void afterEvaluate(Project project, TaskProvider<GenerateI18NTask> taskProvider) {
+		GenerateI18N generateI18N = project.getExtensions().getByType(JavaToolsExtension.class).getGenerateI18N();
+
+		taskProvider.configure(task -> task.afterEvaluate(project));
+		if (generateI18N.isEnabled()) {
+			Plugins.checkJavaApplied(project);
+			Plugins.setTasksDependsOn(project, JavaCompile.class, taskProvider);
+		}
 	}
 
+	/**
+	 * Gets the bundle files to generate the helper classes for.
+	 *
+	 * @return the bundle files to generate the helper classes for.
+	 */
+	@Incremental
+	@PathSensitive(PathSensitivity.RELATIVE)
+	@InputFiles
+	public abstract ConfigurableFileCollection getBundles();
+
+	/**
+	 * Gets the pattern selecting the bundle keys to generate access code for.
+	 *
+	 * @return the pattern selecting the bundle keys to generate access code for.
+	 */
+	@Input
+	public abstract Property<String> getKeyFilter();
+
+	/**
+	 * Gets the encoding of the generated files.
+	 *
+	 * @return the encoding of the generated files.
+	 */
+	@Input
+	public abstract Property<String> getEncoding();
+
+	/**
+	 * Gets the line separator of the generated files.
+	 *
+	 * @return the line separator of the generated files.
+	 */
+	@Input
+	public abstract Property<String> getLineSeparator();
+
+	/**
+	 * Gets the flag whether the generated classes cache the parsed message formats.
+	 *
+	 * @return the flag whether the generated classes cache the parsed message formats.
+	 */
+	@Input
+	public abstract Property<Boolean> getCacheFormats();
+
+	/**
+	 * Gets the flag whether the generated classes load their bundle on first access.
+	 *
+	 * @return the flag whether the generated classes load their bundle on first access.
+	 */
+	@Input
+	public abstract Property<Boolean> getLazyBundle();
+
+	/**
+	 * Gets the flag whether the generated classes provide index based access to the resource strings.
+	 *
+	 * @return the flag whether the generated classes provide index based access to the resource strings.
+	 */
+	@Input
+	public abstract Property<Boolean> getIndexedKeys();
+
+	/**
+	 * Gets the flag whether the bundles are additionally compiled to {@linkplain java.util.ListResourceBundle}
+	 * classes.
+	 *
+	 * @return the flag whether the bundles are additionally compiled to {@linkplain java.util.ListResourceBundle}
+	 * classes.
+	 */
+	@Input
+	public abstract Property<Boolean> getCompileBundles();
+
+	/**
+	 * Gets the flag whether the generated classes provide fixed arity accessors for the resource strings.
+	 *
+	 * @return the flag whether the generated classes provide fixed arity accessors for the resource strings.
+	 */
+	@Input
+	public abstract Property<Boolean> getFixedArityAccessors();
+
+	/**
+	 * Gets the directory receiving the generated files.
+	 *
+	 * @return the directory receiving the generated files.
+	 */
+	@OutputDirectory
+	public abstract DirectoryProperty getGenDir();
+
+	/**
+	 * Gets the {@linkplain WorkerExecutor} used to generate the helper classes.
+	 *
+	 * @return the {@linkplain WorkerExecutor} used to generate the helper classes.
+	 */
+	@Inject
+	protected abstract WorkerExecutor getWorkerExecutor();
+
 	@Override
 	public void apply(Project project) {
+		GenerateI18N generateI18N = project.getExtensions().getByType(JavaToolsExtension.class).getGenerateI18N();
+
 		setGroup(GENERATE_I18N_TASK_GROUP);
 		setDescription(GENERATE_I18N_TASK_DESCRIPTION);
+		// Query the extension lazily, the bundle tree is not walked until the task inputs are fingerprinted
+		getBundles().from((Callable<Object>) generateI18N::getBundles);
+		getKeyFilter().set(project.provider(generateI18N::getKeyFilter));
+		getEncoding().set(project.provider(generateI18N::getEncoding));
+		getLineSeparator().set(project.provider(generateI18N::getLineSeparator));
+		getCacheFormats().set(project.provider(generateI18N::isCacheFormats));
+		getLazyBundle().set(project.provider(generateI18N::isLazyBundle));
+		getIndexedKeys().set(project.provider(generateI18N::isIndexedKeys));
+		getCompileBundles().set(project.provider(generateI18N::isCompileBundles));
+		getFixedArityAccessors().set(project.provider(generateI18N::isFixedArityAccessors));
+		getGenDir().set(project.getLayout().dir(project.provider(generateI18N::getGenDir)));
 	}
 
 	@Override
 	public void afterEvaluate(Project project) {
 		GenerateI18N generateI18N = project.getExtensions().getByType(JavaToolsExtension.class).getGenerateI18N();
-		boolean enabled = generateI18N.isEnabled();
-
-		setEnabled(enabled);
-		if (enabled) {
-			Plugins.checkJavaApplied(project);
-			getInputs().files(generateI18N.getBundles());
-			getOutputs().dir(generateI18N.getGenDir());
-			processBundleFiles(generateI18N.getBundles(), (srcDir, bundleFile) -> {
-				File javaFile = getAbsoluteFile(generateI18N.getGenDir(), getJavaFile(bundleFile));
 
-				project.getLogger().info("{} output file {}", GENERATE_I18N_TASK_NAME, javaFile);
-				getOutputs().file(javaFile);
-			});
-			Plugins.setTasksDependsOn(project, JavaCompile.class, this);
-		}
+		setEnabled(generateI18N.isEnabled());
 	}
 
 	/**
 	 * Executes {@linkplain GenerateI18NTask}.
+	 *
+	 * @param inputChanges the {@linkplain InputChanges} since the last execution.
 	 */
 	@TaskAction
-	public void executeGenerateI18N() {
+	public void executeGenerateI18N(InputChanges inputChanges) {
 		Project project = getProject();
 
 		ProjectLogger.enterProject(project);
 		try {
-			GenerateI18N generateI18N = project.getExtensions().getByType(JavaToolsExtension.class).getGenerateI18N();
-			Pattern keyFilter = Pattern.compile(generateI18N.getKeyFilter());
-
-			processBundleFiles(generateI18N.getBundles(), (srcDir, bundleFile) -> {
-				try {
-					generateJavaFile(srcDir, bundleFile, generateI18N.getGenDir(), keyFilter,
-							generateI18N.getEncoding(), generateI18N.getLineSeparator());
-				} catch (IOException e) {
-					throw new TaskExecutionException(this, e);
+			File genDir = getGenDir().get().getAsFile();
+			boolean incremental = inputChanges.isIncremental();
+			boolean compileBundles = getCompileBundles().get().booleanValue();
+			Set<File> bundleFiles = (compileBundles ? getBundles().getFiles() : Collections.emptySet());
+			Set<Path> javaFiles = new HashSet<>();
+			WorkQueue workQueue = getWorkerExecutor().noIsolation();
+
+			if (!incremental) {
+				project.getLogger().info("Regenerating all I18N helper classes");
+			}
+
+			List<FileChange> bundleChanges = new ArrayList<>();
+			Set<File> changedBundleFiles = new HashSet<>();
+
+			for (FileChange bundleChange : inputChanges.getFileChanges(getBundles())) {
+				if (bundleChange.getFileType() != FileType.DIRECTORY) {
+					bundleChanges.add(bundleChange);
+					changedBundleFiles.add(bundleChange.getFile());
+				}
+			}
+			for (FileChange bundleChange : bundleChanges) {
+				File bundleFile = new File(bundleChange.getNormalizedPath());
+				File absoluteBundleFile = bundleChange.getFile();
+
+				if (bundleChange.getChangeType() == ChangeType.REMOVED) {
+					deleteJavaFile(bundleFile, genDir);
+				} else {
+					submitJavaFile(workQueue, absoluteBundleFile, bundleFile, genDir, bundleFiles, javaFiles);
+				}
+				// Whether a bundle is a locale variant depends on the existence of its base bundle; hence the
+				// unchanged locale variants of an added or removed base bundle have to be re-generated as well
+				if (compileBundles && bundleChange.getChangeType() != ChangeType.MODIFIED) {
+					for (File variantBundleFile : bundleFiles) {
+						if (isLocaleVariant(absoluteBundleFile, variantBundleFile)
+								&& !changedBundleFiles.contains(variantBundleFile)) {
+							File variantRelativeBundleFile = new File(bundleFile.getParentFile(),
+									variantBundleFile.getName());
+
+							project.getLogger().info("Re-generating I18N locale variant {}", variantBundleFile);
+							changedBundleFiles.add(variantBundleFile);
+							deleteJavaFile(variantRelativeBundleFile, genDir);
+							submitJavaFile(workQueue, variantBundleFile, variantRelativeBundleFile, genDir,
+									bundleFiles, javaFiles);
+						}
+					}
 				}
-			});
+			}
+			workQueue.await();
+			if (!incremental) {
+				// All bundles are reported as added; remove any helper class of a no longer existing bundle
+				deleteStaleJavaFiles(genDir, javaFiles);
+			}
+		} catch (IOException e) {
+			throw new TaskExecutionException(this, e);
 		} finally {
 			ProjectLogger.leaveProject();
 		}
 	}
 
-	private void processBundleFiles(ConfigurableFileTree fileTree, BiConsumer<File, File> consumer) {
-		File srcDir = fileTree.getDir();
-
-		fileTree.forEach(
-				bundleFile -> consumer.accept(srcDir, getRelativeFile(srcDir, Objects.requireNonNull(bundleFile))));
-	}
-
-	private File getRelativeFile(File baseDir, File file) {
-		Path baseDirPath = baseDir.toPath();
-		Path filePath = file.toPath();
+	private void submitJavaFile(WorkQueue workQueue, File absoluteBundleFile, File bundleFile, File genDir,
+			Set<File> bundleFiles, Set<Path> javaFiles) {
+		boolean compileBundles = getCompileBundles().get().booleanValue();
 
-		return baseDirPath.relativize(filePath).toFile();
+		if (compileBundles) {
+			checkLocaleVariants(absoluteBundleFile, bundleFiles);
+		}
+		for (File javaFile : getJavaFiles(absoluteBundleFile, bundleFile, compileBundles)) {
+			javaFiles.add(getAbsoluteFile(genDir, javaFile).toPath());
+		}
+		workQueue.submit(GenerateI18NWorkAction.class, parameters -> {
+			parameters.getBundleFile().set(absoluteBundleFile);
+			parameters.getBundlePath().set(bundleFile.getPath().replace('\\', '/'));
+			parameters.getGenDir().set(genDir);
+			parameters.getKeyFilter().set(getKeyFilter());
+			parameters.getEncoding().set(getEncoding());
+			parameters.getLineSeparator().set(getLineSeparator());
+			parameters.getCacheFormats().set(getCacheFormats());
+			parameters.getLazyBundle().set(getLazyBundle());
+			parameters.getIndexedKeys().set(getIndexedKeys());
+			parameters.getCompileBundles().set(getCompileBundles());
+			parameters.getFixedArityAccessors().set(getFixedArityAccessors());
+		});
 	}
 
-	private File getAbsoluteFile(File baseDir, File file) {
+	private static File getAbsoluteFile(File baseDir, File file) {
 		Path baseDirPath = baseDir.toPath();
 		Path filePath = file.toPath();
 
 		return baseDirPath.resolve(filePath).toAbsolutePath().toFile();
 	}
 
-	private File getJavaFile(File bundleFile) {
+	private static File getJavaFile(File bundleFile) {
 		File bundleFileParent = bundleFile.getParentFile();
 		String bundleFileName = bundleFile.getName();
 		int extensionIndex = bundleFileName.lastIndexOf('.');
@@ -152,56 +367,366 @@ public class GenerateI18NTask extends DefaultTask implements JavaToolsTask {
 		return new File(bundleFileParent, javaFileName);
 	}
 
-	private void generateJavaFile(File srcDir, File bundleFile, File genDir, Pattern keyFilter, String encoding,
-			String lineSeparator) throws IOException {
-		File absoluteBundleFile = getAbsoluteFile(srcDir, bundleFile);
-		File javaFile = getJavaFile(bundleFile);
-		File absoluteJavaFile = getAbsoluteFile(genDir, javaFile);
+	private static String getBundleName(File bundleFile) {
+		String bundleFileName = bundleFile.getName();
+		int extensionIndex = bundleFileName.lastIndexOf('.');
 
-		Files.createDirectories(absoluteJavaFile.toPath().getParent());
-		try (Reader bundleReader = new FileReader(absoluteBundleFile);
-				OutputWriter javaWriter = new OutputWriter(absoluteJavaFile, false, encoding, lineSeparator)) {
-			Properties bundle = new Properties();
+		return (0 < extensionIndex ? bundleFileName.substring(0, extensionIndex) : bundleFileName);
+	}
 
-			bundle.load(bundleReader);
+	private static List<String> getLocaleSuffixCandidates(String bundleName) {
+		List<String> localeSuffixes = new ArrayList<>();
+		int suffixIndex = bundleName.indexOf('_');
+
+		while (0 < suffixIndex) {
+			String localeSuffix = bundleName.substring(suffixIndex);
+
+			if (LOCALE_SUFFIX_PATTERN.matcher(localeSuffix).matches()) {
+				localeSuffixes.add(localeSuffix);
+			}
+			suffixIndex = bundleName.indexOf('_', suffixIndex + 1);
+		}
+		return localeSuffixes;
+	}
+
+	@Nullable
+	private static String getLocaleSuffix(File absoluteBundleFile) {
+		String bundleName = getBundleName(absoluteBundleFile);
+		String extension = absoluteBundleFile.getName().substring(bundleName.length());
+		String localeSuffix = null;
+
+		// A bundle file is a locale variant if the corresponding base bundle file exists
+		for (String localeSuffixCandidate : getLocaleSuffixCandidates(bundleName)) {
+			String baseBundleName = bundleName.substring(0, bundleName.length() - localeSuffixCandidate.length());
+
+			if (new File(absoluteBundleFile.getParentFile(), baseBundleName + extension).isFile()) {
+				localeSuffix = localeSuffixCandidate;
+				break;
+			}
+		}
+		return localeSuffix;
+	}
 
-			List<String> bundleKeys = new ArrayList<>(bundle.stringPropertyNames());
+	private static File getCompiledBundleJavaFile(File bundleFile, @Nullable String localeSuffix) {
+		String bundleName = getBundleName(bundleFile);
+		String javaFileName = (localeSuffix != null
+				? bundleName.substring(0, bundleName.length() - localeSuffix.length()) + COMPILED_BUNDLE_SUFFIX
+						+ localeSuffix
+				: bundleName + COMPILED_BUNDLE_SUFFIX) + ".java";
 
-			bundleKeys.sort(String::compareTo);
-			generateJavaHeader(javaWriter, bundleFile, javaFile);
-			for (String bundleKey : bundleKeys) {
-				if (keyFilter.matcher(bundleKey).matches()) {
-					String bundleString = Objects.requireNonNull(bundle.getProperty(bundleKey));
+		return new File(bundleFile.getParentFile(), javaFileName);
+	}
+
+	private static List<File> getJavaFiles(File absoluteBundleFile, File bundleFile, boolean compileBundles) {
+		List<File> javaFiles = new ArrayList<>();
+		@Nullable String localeSuffix = (compileBundles ? getLocaleSuffix(absoluteBundleFile) : null);
+
+		// Locale variants are not accessed directly, hence only the base bundle gets a helper class
+		if (localeSuffix == null) {
+			javaFiles.add(getJavaFile(bundleFile));
+		}
+		if (compileBundles) {
+			javaFiles.add(getCompiledBundleJavaFile(bundleFile, localeSuffix));
+		}
+		return javaFiles;
+	}
 
-					generateJavaBody(javaWriter, bundleKey, bundleString);
+	private static boolean isLocaleVariant(File absoluteBundleFile, File file) {
+		String bundleName = getBundleName(absoluteBundleFile);
+		String extension = absoluteBundleFile.getName().substring(bundleName.length());
+		String fileName = file.getName();
+
+		return absoluteBundleFile.getParentFile().equals(file.getParentFile())
+				&& fileName.startsWith(bundleName + "_") && fileName.endsWith(extension)
+				&& LOCALE_SUFFIX_PATTERN.matcher(getBundleName(file).substring(bundleName.length())).matches();
+	}
+
+	private void checkLocaleVariants(File absoluteBundleFile, Set<File> bundleFiles) {
+		File[] siblingFiles = absoluteBundleFile.getParentFile().listFiles();
+
+		if (siblingFiles != null) {
+			for (File siblingFile : siblingFiles) {
+				if (isLocaleVariant(absoluteBundleFile, siblingFile) && !bundleFiles.contains(siblingFile)) {
+					getProject().getLogger().warn(
+							"Locale variant {} of I18N bundle {} is not compiled; please add it to the bundles",
+							siblingFile, absoluteBundleFile);
 				}
 			}
-			generateJavaFooter(javaWriter);
 		}
 	}
 
-	private void generateJavaHeader(OutputWriter javaWriter, File bundleFile, File javaFile) throws IOException {
+	private void deleteJavaFile(File bundleFile, File genDir) throws IOException {
+		List<File> javaFiles = new ArrayList<>();
+
+		// The bundle file is gone, hence consider any generated file the bundle may have caused
+		javaFiles.add(getJavaFile(bundleFile));
+		javaFiles.add(getCompiledBundleJavaFile(bundleFile, null));
+		for (String localeSuffix : getLocaleSuffixCandidates(getBundleName(bundleFile))) {
+			javaFiles.add(getCompiledBundleJavaFile(bundleFile, localeSuffix));
+		}
+		for (File javaFile : javaFiles) {
+			File absoluteJavaFile = getAbsoluteFile(genDir, javaFile);
+
+			if (Files.deleteIfExists(absoluteJavaFile.toPath())) {
+				getProject().getLogger().info("Deleted I18N class {}", absoluteJavaFile);
+			}
+		}
+	}
+
+	private void deleteStaleJavaFiles(File genDir, Set<Path> javaFiles) throws IOException {
+		Path genDirPath = genDir.toPath();
+
+		if (Files.isDirectory(genDirPath)) {
+			List<Path> staleJavaFileCandidates;
+
+			try (Stream<Path> genDirFiles = Files.walk(genDirPath)) {
+				staleJavaFileCandidates = genDirFiles.filter(Files::isRegularFile)
+						.filter(file -> file.getFileName().toString().endsWith(".java"))
+						.filter(file -> !javaFiles.contains(file.toAbsolutePath())).collect(Collectors.toList());
+			}
+
+			Charset encoding = Charset.forName(getEncoding().get());
+
+			// The generation directory may contain further sources; hence only delete the ones generated by us
+			for (Path staleJavaFileCandidate : staleJavaFileCandidates) {
+				if (isGeneratedJavaFile(staleJavaFileCandidate, encoding)) {
+					getProject().getLogger().info("Deleting stale I18N helper class {}", staleJavaFileCandidate);
+					Files.delete(staleJavaFileCandidate);
+				}
+			}
+		}
+	}
+
+	private static boolean isGeneratedJavaFile(Path javaFile, Charset encoding) throws IOException {
+		String fileHeader = TEMPLATES.getString("FILE_HEADER");
+		byte[] javaFilePrefix = new byte[fileHeader.length() * 4];
+		int javaFilePrefixLength = 0;
+
+		try (InputStream javaFileStream = Files.newInputStream(javaFile)) {
+			int read;
+
+			while (javaFilePrefixLength < javaFilePrefix.length && (read = javaFileStream.read(javaFilePrefix,
+					javaFilePrefixLength, javaFilePrefix.length - javaFilePrefixLength)) >= 0) {
+				javaFilePrefixLength += read;
+			}
+		}
+		// The line separator may have been changed since the file has been generated
+		return new String(javaFilePrefix, 0, javaFilePrefixLength, encoding).replace("\r\n", "\n").replace('\r', '\n')
+				.startsWith(fileHeader);
+	}
+
+	static void generateJavaFile(File absoluteBundleFile, String bundlePath, File genDir, String keyFilterPattern,
+			String encoding, String lineSeparator, boolean cacheFormats, boolean lazyBundle, boolean indexedKeys,
+			boolean compileBundles, boolean fixedArityAccessors) throws IOException {
+		File bundleFile = new File(bundlePath);
+		Properties bundle = loadBundle(absoluteBundleFile);
+		List<String> bundleKeys = new ArrayList<>(bundle.stringPropertyNames());
+
+		bundleKeys.sort(String::compareTo);
+
+		@Nullable String localeSuffix = (compileBundles ? getLocaleSuffix(absoluteBundleFile) : null);
+		List<String> results = new ArrayList<>();
+
+		if (localeSuffix == null) {
+			Pattern keyFilter = Pattern.compile(keyFilterPattern);
+			File javaFile = getJavaFile(bundleFile);
+			StringWriter javaBuffer = new StringWriter();
+
+			try (OutputWriter javaWriter = new OutputWriter(javaBuffer, lineSeparator)) {
+				List<String> filteredBundleKeys = new ArrayList<>();
+
+				generateJavaHeader(javaWriter, bundleFile, javaFile, cacheFormats, lazyBundle, compileBundles);
+				for (String bundleKey : bundleKeys) {
+					if (keyFilter.matcher(bundleKey).matches()) {
+						String bundleString = Objects.requireNonNull(bundle.getProperty(bundleKey));
+
+						generateJavaBody(javaWriter, bundleKey, bundleString, fixedArityAccessors);
+						filteredBundleKeys.add(bundleKey);
+					}
+				}
+				if (indexedKeys) {
+					generateIndexedKeys(javaWriter, bundle, filteredBundleKeys);
+				}
+				generateJavaFooter(javaWriter);
+			}
+			results.add(updateJavaFile(getAbsoluteFile(genDir, javaFile), javaBuffer, encoding));
+		}
+		if (compileBundles) {
+			File javaFile = getCompiledBundleJavaFile(bundleFile, localeSuffix);
+			StringWriter javaBuffer = new StringWriter();
+
+			try (OutputWriter javaWriter = new OutputWriter(javaBuffer, lineSeparator)) {
+				generateCompiledBundle(javaWriter, bundleFile, javaFile, bundle, bundleKeys);
+			}
+			results.add(updateJavaFile(getAbsoluteFile(genDir, javaFile), javaBuffer, encoding));
+		}
+		// Log a single message per bundle to keep the output of concurrently processed bundles apart
+		LOG.info("Processed I18N bundle {}: {}", absoluteBundleFile, String.join("; ", results));
+	}
+
+	private static Properties loadBundle(File absoluteBundleFile) throws IOException {
+		byte[] bundleBytes = Files.readAllBytes(absoluteBundleFile.toPath());
+		String bundleText;
+
+		// Decode the bundle the same way PropertyResourceBundle does (UTF-8 and ISO-8859-1 for legacy bundles);
+		// otherwise the generated code would not match the strings returned by the runtime
+		try {
+			bundleText = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+					.onUnmappableCharacter(CodingErrorAction.REPORT).decode(ByteBuffer.wrap(bundleBytes)).toString();
+		} catch (CharacterCodingException e) {
+			bundleText = new String(bundleBytes, StandardCharsets.ISO_8859_1);
+		}
+
+		Properties bundle = new Properties();
+
+		try (Reader bundleReader = new StringReader(bundleText)) {
+			bundle.load(bundleReader);
+		}
+		return bundle;
+	}
+
+	private static String updateJavaFile(File absoluteJavaFile, StringWriter javaBuffer, String encoding)
+			throws IOException {
+		boolean updated = OutputWriter.updateFile(absoluteJavaFile.toPath(),
+				javaBuffer.toString().getBytes(Charset.forName(encoding)));
+
+		return (updated ? "Updated " + absoluteJavaFile : absoluteJavaFile + " is up-to-date");
+	}
+
+	private static String getJavaPackage(File javaFile) {
+		return Strings.safe(javaFile.getParent()).replace('/', '.').replace('\\', '.');
+	}
+
+	private static String getJavaClass(File javaFile) {
+		return javaFile.getName().replaceAll("\\..*", "");
+	}
+
+	private static void generateJavaHeader(OutputWriter javaWriter, File bundleFile, File javaFile,
+			boolean cacheFormats, boolean lazyBundle, boolean compileBundles) throws IOException {
 		javaWriter.write(TEMPLATES.getString("FILE_HEADER"));
 
-		String javaPackage = Strings.safe(javaFile.getParent()).replace('/', '.').replace('\\', '.');
-		String javaClass = javaFile.getName().replaceAll("\\..*", "");
+		String javaPackage = getJavaPackage(javaFile);
+		String javaClass = getJavaClass(javaFile);
 		String normalizedBundleFile = bundleFile.toString().replace('\\', '/');
+		// The bundle name refers to the compiled bundle class (if any) to make sure it is used by all bundle lookups
+		String bundleClass = (compileBundles ? getJavaClass(getCompiledBundleJavaFile(bundleFile, null)) : javaClass);
+		String bundleInitializer = TEMPLATES.getString("BUNDLE_INITIALIZER");
+		String bundleDeclarations = (lazyBundle
+				? MessageFormat.format(TEMPLATES.getString("LAZY_BUNDLE_DECLARATIONS"),
+						(Strings.notEmpty(javaPackage) ? javaPackage + "." : "") + bundleClass, bundleInitializer)
+				: MessageFormat.format(TEMPLATES.getString("BUNDLE_DECLARATIONS"), bundleClass, bundleInitializer));
 
 		if (Strings.notEmpty(javaPackage)) {
 			javaWriter.write(MessageFormat.format(TEMPLATES.getString("PACKAGE_STATEMENT"), javaPackage));
 		}
-		javaWriter.write(MessageFormat.format(TEMPLATES.getString("CLASS_START"), normalizedBundleFile, javaClass));
+		javaWriter.write(MessageFormat.format(TEMPLATES.getString(cacheFormats ? "CLASS_START_CACHED" : "CLASS_START"),
+				normalizedBundleFile, javaClass, bundleDeclarations));
 	}
 
-	private void generateJavaBody(OutputWriter javaWriter, String bundleKey, String bundleString) throws IOException {
+	private static void generateCompiledBundle(OutputWriter javaWriter, File bundleFile, File javaFile,
+			Properties bundle, List<String> bundleKeys) throws IOException {
+		javaWriter.write(TEMPLATES.getString("FILE_HEADER"));
+
+		String javaPackage = getJavaPackage(javaFile);
+		String javaClass = getJavaClass(javaFile);
+		String normalizedBundleFile = bundleFile.toString().replace('\\', '/');
+		int entryCount = bundleKeys.size();
+		StringBuilder chunkCalls = new StringBuilder();
+
+		// Split the entries into multiple methods to stay below the maximum method size
+		for (int chunkIndex = 0; chunkIndex * COMPILED_BUNDLE_CHUNK_SIZE < entryCount; chunkIndex++) {
+			chunkCalls.append(MessageFormat.format(TEMPLATES.getString("BUNDLE_CLASS_CHUNK_CALL"),
+					Integer.toString(chunkIndex)));
+		}
+		if (Strings.notEmpty(javaPackage)) {
+			javaWriter.write(MessageFormat.format(TEMPLATES.getString("PACKAGE_STATEMENT"), javaPackage));
+		}
+		javaWriter.write(MessageFormat.format(TEMPLATES.getString("BUNDLE_CLASS_START"), normalizedBundleFile,
+				javaClass, Integer.toString(entryCount), chunkCalls));
+		for (int entryIndex = 0; entryIndex < entryCount; entryIndex++) {
+			if (entryIndex % COMPILED_BUNDLE_CHUNK_SIZE == 0) {
+				javaWriter.write(MessageFormat.format(TEMPLATES.getString("BUNDLE_CLASS_CHUNK_START"),
+						Integer.toString(entryIndex / COMPILED_BUNDLE_CHUNK_SIZE)));
+			}
+
+			String bundleKey = bundleKeys.get(entryIndex);
+			String bundleString = Objects.requireNonNull(bundle.getProperty(bundleKey));
+
+			javaWriter.write(MessageFormat.format(TEMPLATES.getString("BUNDLE_CLASS_ENTRY"),
+					Integer.toString(entryIndex), JavaOutput.encodeJavaString(bundleKey),
+					JavaOutput.encodeJavaString(bundleString)));
+			if (entryIndex % COMPILED_BUNDLE_CHUNK_SIZE == COMPILED_BUNDLE_CHUNK_SIZE - 1
+					|| entryIndex == entryCount - 1) {
+				javaWriter.write(TEMPLATES.getString("BUNDLE_CLASS_CHUNK_END"));
+			}
+		}
+		generateJavaFooter(javaWriter);
+	}
+
+	private static void generateJavaBody(OutputWriter javaWriter, String bundleKey, String bundleString,
+			boolean fixedArityAccessors) throws IOException {
 		String mangledBundleKey = JavaOutput.mangleBundleKey(bundleKey);
 		String encodedBundleString = JavaOutput.encodeBundleString(bundleString);
 
 		javaWriter.write(MessageFormat.format(TEMPLATES.getString("CLASS_BODY"), bundleKey, mangledBundleKey,
 				encodedBundleString));
+
+		// Add allocation free (no arguments) or arity checked accessors if the pattern is well-formed
+		int argumentCount = (fixedArityAccessors ? getArgumentCount(bundleString) : -1);
+
+		if (argumentCount == 0 && bundleString.indexOf('\'') < 0) {
+			javaWriter.write(MessageFormat.format(TEMPLATES.getString("CLASS_BODY_STRING"), bundleKey,
+					mangledBundleKey, encodedBundleString));
+		} else if (argumentCount >= 0) {
+			StringBuilder parameters = new StringBuilder();
+			StringBuilder arguments = new StringBuilder();
+			StringBuilder parameterDocs = new StringBuilder();
+
+			for (int argumentIndex = 0; argumentIndex < argumentCount; argumentIndex++) {
+				if (argumentIndex > 0) {
+					parameters.append(", ");
+					arguments.append(", ");
+				}
+				parameters.append("Object argument").append(argumentIndex);
+				arguments.append("argument").append(argumentIndex);
+				parameterDocs.append(MessageFormat.format(TEMPLATES.getString("CLASS_BODY_ARGUMENT_DOC"),
+						Integer.toString(argumentIndex)));
+			}
+
+			// MessageFormat always requires an argument array; it is sized explicitly and built once per call
+			String argumentArray = (argumentCount > 0 ? "new Object[] { " + arguments + " }" : "new Object[0]");
+
+			javaWriter.write(MessageFormat.format(TEMPLATES.getString("CLASS_BODY_ARGUMENTS"), bundleKey,
+					mangledBundleKey, encodedBundleString, parameters, argumentArray, parameterDocs));
+		}
+	}
+
+	private static int getArgumentCount(String bundleString) {
+		int argumentCount;
+
+		try {
+			argumentCount = new MessageFormat(bundleString).getFormatsByArgumentIndex().length;
+		} catch (IllegalArgumentException e) {
+			LOG.warn("Ignoring invalid message format pattern '{}' ({})", bundleString, e.getMessage());
+			argumentCount = -1;
+		}
+		return argumentCount;
+	}
+
+	private static void generateIndexedKeys(OutputWriter javaWriter, Properties bundle, List<String> bundleKeys)
+			throws IOException {
+		javaWriter.write(TEMPLATES.getString("INDEXED_KEYS_START"));
+		for (String bundleKey : bundleKeys) {
+			String encodedBundleString = JavaOutput
+					.encodeBundleString(Objects.requireNonNull(bundle.getProperty(bundleKey)));
+
+			javaWriter.write(MessageFormat.format(TEMPLATES.getString("INDEXED_KEYS_CONSTANT"), bundleKey,
+					encodedBundleString));
+		}
+		javaWriter.write(TEMPLATES.getString("INDEXED_KEYS_END"));
 	}
 
-	private void generateJavaFooter(OutputWriter javaWriter) throws IOException {
+	private static void generateJavaFooter(OutputWriter javaWriter) throws IOException {
 		javaWriter.write(MessageFormat.format(TEMPLATES.getString("CLASS_END"), (Object) new Object[0]));
 	}
 
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+/**
+ * Worker API action generating the I18N helper class of a single bundle.
+ */
+public abstract class GenerateI18NWorkAction implements WorkAction<GenerateI18NWorkAction.Parameters> {
+
+	/**
+	 * The parameters of a {@linkplain GenerateI18NWorkAction}.
+	 */
+	public interface Parameters extends WorkParameters {
+
+		/**
+		 * Gets the bundle file to generate the helper class for.
+		 *
+		 * @return the bundle file to generate the helper class for.
+		 */
+		RegularFileProperty getBundleFile();
+
+		/**
+		 * Gets the path of the bundle file relative to its source directory.
+		 *
+		 * @return the path of the bundle file relative to its source directory.
+		 */
+		Property<String> getBundlePath();
+
+		/**
+		 * Gets the directory receiving the generated helper class.
+		 *
+		 * @return the directory receiving the generated helper class.
+		 */
+		DirectoryProperty getGenDir();
+
+		/**
+		 * Gets the pattern selecting the bundle keys to generate access code for.
+		 *
+		 * @return the pattern selecting the bundle keys to generate access code for.
+		 */
+		Property<String> getKeyFilter();
+
+		/**
+		 * Gets the encoding of the generated file.
+		 *
+		 * @return the encoding of the generated file.
+		 */
+		Property<String> getEncoding();
+
+		/**
+		 * Gets the line separator of the generated file.
+		 *
+		 * @return the line separator of the generated file.
+		 */
+		Property<String> getLineSeparator();
+
+		/**
+		 * Gets the flag whether the generated class caches the parsed message formats.
+		 *
+		 * @return the flag whether the generated class caches the parsed message formats.
+		 */
+		Property<Boolean> getCacheFormats();
+
+		/**
+		 * Gets the flag whether the generated class loads its bundle on first access.
+		 *
+		 * @return the flag whether the generated class loads its bundle on first access.
+		 */
+		Property<Boolean> getLazyBundle();
+
+		/**
+		 * Gets the flag whether the generated class provides index based access to the resource strings.
+		 *
+		 * @return the flag whether the generated class provides index based access to the resource strings.
+		 */
+		Property<Boolean> getIndexedKeys();
+
+		/**
+		 * Gets the flag whether the bundle is additionally compiled to a {@linkplain java.util.ListResourceBundle}
+		 * class.
+		 *
+		 * @return the flag whether the bundle is additionally compiled to a
+		 * {@linkplain java.util.ListResourceBundle} class.
+		 */
+		Property<Boolean> getCompileBundles();
+
+		/**
+		 * Gets the flag whether the generated class provides fixed arity accessors for the resource strings.
+		 *
+		 * @return the flag whether the generated class provides fixed arity accessors for the resource strings.
+		 */
+		Property<Boolean> getFixedArityAccessors();
+
+	}
+
+	@Override
+	public void execute() {
+		Parameters parameters = getParameters();
+
+		try {
+			GenerateI18NTask.generateJavaFile(parameters.getBundleFile().get().getAsFile(),
+					parameters.getBundlePath().get(), parameters.getGenDir().get().getAsFile(),
+					parameters.getKeyFilter().get(), parameters.getEncoding().get(),
+					parameters.getLineSeparator().get(), parameters.getCacheFormats().get().booleanValue(),
+					parameters.getLazyBundle().get().booleanValue(), parameters.getIndexedKeys().get().booleanValue(),
+					parameters.getCompileBundles().get().booleanValue(),
+					parameters.getFixedArityAccessors().get().booleanValue());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.io.File;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Read-only access to the versions already available in Gradle's module cache.
+ * <p>
+ * Used to answer latest dependency version lookups in offline mode. Both the artifact files as well as the metadata
+ * descriptor directories are considered.
+ */
+class GradleModuleCache {
+
+	private static final String MODULES_DIR_NAME = "caches/modules-2";
+	private static final String FILES_DIR_NAME = "files-2.1";
+	private static final String METADATA_DIR_PREFIX = "metadata-";
+	private static final String DESCRIPTORS_DIR_NAME = "descriptors";
+
+	private final File modulesDir;
+
+	GradleModuleCache(File gradleUserHomeDir) {
+		this.modulesDir = new File(gradleUserHomeDir, MODULES_DIR_NAME);
+	}
+
+	@Nullable
+	public LatestVersion getLatestVersion(ArtifactId artifactId, Predicate<ArtifactVersionId> candidateFilter) {
+		LatestVersion latestVersion = null;
+		File[] moduleDirs = this.modulesDir.listFiles();
+
+		if (moduleDirs != null) {
+			for (File moduleDir : moduleDirs) {
+				String moduleDirName = moduleDir.getName();
+				File artifactDir = null;
+
+				if (FILES_DIR_NAME.equals(moduleDirName)) {
+					artifactDir = new File(new File(moduleDir, artifactId.getGroup()), artifactId.getName());
+				} else if (moduleDirName.startsWith(METADATA_DIR_PREFIX)) {
+					artifactDir = new File(new File(new File(moduleDir, DESCRIPTORS_DIR_NAME), artifactId.getGroup()),
+							artifactId.getName());
+				}
+				if (artifactDir != null) {
+					latestVersion = getLatestVersion(artifactId, artifactDir, candidateFilter, latestVersion);
+				}
+			}
+		}
+		return latestVersion;
+	}
+
+	@Nullable
+	private LatestVersion getLatestVersion(ArtifactId artifactId, File artifactDir,
+			Predicate<ArtifactVersionId> candidateFilter, @Nullable LatestVersion currentLatestVersion) {
+		LatestVersion latestVersion = currentLatestVersion;
+		File[] versionDirs = artifactDir.listFiles(File::isDirectory);
+
+		if (versionDirs != null) {
+			for (File versionDir : versionDirs) {
+				ArtifactVersionId versionId = new ArtifactVersionId(artifactId.getGroup(), artifactId.getName(),
+						versionDir.getName());
+
+				if (candidateFilter.test(versionId)) {
+					LatestVersion versionDirLatestVersion = new LatestVersion(versionId, versionDir.lastModified(),
+							true);
+
+					if (latestVersion == null || versionDirLatestVersion.isNewerThan(latestVersion)) {
+						latestVersion = versionDirLatestVersion;
+					}
+				}
+			}
+		}
+		return latestVersion;
+	}
+
+}
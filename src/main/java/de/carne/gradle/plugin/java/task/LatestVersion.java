@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The result of a latest dependency version lookup.
+ */
+class LatestVersion {
+
+	private final ArtifactVersionId artifactVersionId;
+	private final long timestamp;
+	private final boolean stale;
+
+	LatestVersion(ArtifactVersionId artifactVersionId, long timestamp, boolean stale) {
+		this.artifactVersionId = artifactVersionId;
+		this.timestamp = timestamp;
+		this.stale = stale;
+	}
+
+	public ArtifactVersionId getArtifactVersionId() {
+		return this.artifactVersionId;
+	}
+
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	public boolean isStale() {
+		return this.stale;
+	}
+
+	public boolean isNewerThan(LatestVersion latestVersion) {
+		return this.artifactVersionId.compareTo(latestVersion.artifactVersionId) > 0;
+	}
+
+	public String getTimestampString() {
+		return Instant.ofEpochMilli(this.timestamp).truncatedTo(ChronoUnit.SECONDS).toString();
+	}
+
+	@Override
+	public String toString() {
+		return this.artifactVersionId + (this.stale ? " (stale since " + getTimestampString() + ")" : "");
+	}
+
+}
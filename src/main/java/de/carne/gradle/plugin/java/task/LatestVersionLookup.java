@@ -0,0 +1,683 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.ComponentSelection;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.AuthenticationContainer;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.artifacts.repositories.PasswordCredentials;
+import org.gradle.api.artifacts.repositories.UrlArtifactRepository;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolutionResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.credentials.HttpHeaderCredentials;
+import org.gradle.api.logging.Logger;
+import org.gradle.authentication.Authentication;
+import org.gradle.authentication.http.BasicAuthentication;
+import org.gradle.authentication.http.HttpHeaderAuthentication;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+
+import de.carne.gradle.plugin.java.ext.CheckDependencyVersions;
+import de.carne.gradle.plugin.java.util.MavenMetadataClient;
+import de.carne.gradle.plugin.java.util.Strings;
+
+/**
+ * Looks up the latest versions of a set of dependencies.
+ * <p>
+ * Every artifact is looked up only once regardless of how many configurations declare it. Lookups are answered from
+ * the persistent cache, the Gradle module cache (in offline mode) or by resolving the artifacts via a dedicated
+ * configuration (or by fetching the Maven metadata files directly if the Maven lookup engine is enabled).
+ * Artifacts whose declarations have not been changed since the previous task execution re-use the previous result
+ * (as long as it is not expired) without any lookup. The same applies to artifacts with an accepted (and not yet
+ * expired) version in the {@linkplain DependencyVersionBaseline}. Lookups are coordinated build wide via the
+ * {@linkplain LatestVersionLookupService}, hence an artifact already looked up (or currently being looked up) by
+ * another task is not looked up again.
+ * <p>
+ * Lookups are submitted per dependency set via
+ * {@linkplain #submit(String, DependencyMap, Configuration, RepositoryHandler)}
+ * and performed all at once via {@linkplain #complete()}. Configuration resolution requires the project lock and
+ * therefore takes place on the calling thread. All lookups not requiring any project state are executed concurrently
+ * (limited by the configured maximum parallelism) via Gradle's Worker API.
+ */
+class LatestVersionLookup {
+
+	private static final String METADATA_DIR_NAME = "maven-metadata";
+	private static final Set<String> METADATA_REPOSITORY_SCHEMES = new HashSet<>(
+			Arrays.asList("file", "http", "https"));
+	private static final String MODULE_CACHE_SOURCE = "Gradle module cache";
+
+	private final String lookupId = UUID.randomUUID().toString();
+	private final Project project;
+	private final Logger logger;
+	private final CheckDependencyVersions checkDependencyVersions;
+	private final WorkerExecutor workerExecutor;
+	private final LatestVersionLookupService lookupService;
+	private final DependencyVersionState state;
+	@Nullable
+	private final DependencyVersionBaseline baseline;
+	private final boolean updateBaseline;
+	private final boolean offline;
+	private final GradleModuleCache moduleCache;
+	private final boolean metadataEngine;
+	private final MavenMetadataClient metadataClient;
+	private final List<Request> requests = new ArrayList<>();
+	private final List<PendingLookup> pendingLookups = new ArrayList<>();
+	private final LookupStatistics statistics = new LookupStatistics();
+
+	public LatestVersionLookup(Project project, CheckDependencyVersions checkDependencyVersions,
+			WorkerExecutor workerExecutor, LatestVersionLookupService lookupService, File stateFile,
+			@Nullable DependencyVersionBaseline baseline, boolean updateBaseline) {
+		this.project = project;
+		this.logger = project.getLogger();
+		this.checkDependencyVersions = checkDependencyVersions;
+		this.workerExecutor = workerExecutor;
+		this.lookupService = lookupService;
+		this.state = new DependencyVersionState(stateFile,
+				TimeUnit.HOURS.toMillis(checkDependencyVersions.getCacheTtl()));
+		this.baseline = baseline;
+		this.updateBaseline = updateBaseline;
+		this.offline = checkDependencyVersions.isOffline() || project.getGradle().getStartParameter().isOffline();
+		this.moduleCache = new GradleModuleCache(project.getGradle().getGradleUserHomeDir());
+		this.metadataEngine = CheckDependencyVersions.LOOKUP_ENGINE_MAVEN
+				.equals(checkDependencyVersions.getLookupEngine());
+		this.metadataClient = new MavenMetadataClient(
+				checkDependencyVersions.getCacheDir().toPath().resolve(METADATA_DIR_NAME));
+	}
+
+	public static List<String> getRepositoryKeys(RepositoryHandler repositories) {
+		List<String> repositoryKeys = new ArrayList<>();
+
+		for (ArtifactRepository repository : repositories) {
+			if (repository instanceof UrlArtifactRepository) {
+				repositoryKeys.add(((UrlArtifactRepository) repository).getUrl().toString());
+			} else {
+				repositoryKeys.add(repository.getName());
+			}
+		}
+		return repositoryKeys;
+	}
+
+	/**
+	 * Submits the lookup of the latest versions of a {@linkplain DependencyMap}.
+	 * <p>
+	 * The check configuration is resolved against the repositories of its owning container (which has to be the given
+	 * {@linkplain RepositoryHandler}). If the repositories are owned by a project the calling task is not permitted to
+	 * resolve (e.g. another sub-project), no check configuration is passed and the repositories are never touched by a
+	 * resolution. The lookups are then executed via a dedicated {@code maven-metadata.xml} lookup per repository group
+	 * (regardless of the configured lookup engine) or, if any of the repositories is not supported by the latter, taken
+	 * from the offline sources.
+	 *
+	 * @param section the report section the lookup is submitted for.
+	 * @param dependencyMap the {@linkplain DependencyMap} to look up.
+	 * @param cdvConfiguration the check configuration to resolve (may be {@code null}).
+	 * @param repositories the {@linkplain RepositoryHandler} containing the repositories to look up.
+	 * @return the submitted {@linkplain Request}.
+	 */
+	public Request submit(String section, DependencyMap dependencyMap, @Nullable Configuration cdvConfiguration,
+			RepositoryHandler repositories) {
+		List<String> repositoryKeys = getRepositoryKeys(repositories);
+		DependencyVersionCache cache = new DependencyVersionCache(this.checkDependencyVersions.getCacheDir(),
+				repositoryKeys, TimeUnit.HOURS.toMillis(this.checkDependencyVersions.getCacheTtl()));
+		List<MavenMetadataClient.Repository> metadataRepositories = (this.metadataEngine || cdvConfiguration == null
+				? getMetadataRepositories(repositories)
+				: null);
+		boolean metadataLookup = !this.offline && metadataRepositories != null;
+
+		if (!this.offline && cdvConfiguration == null && metadataRepositories == null) {
+			this.logger.warn("Unable to resolve dependencies using repositories {}; using offline latest versions "
+					+ "(run the owning project's check task for an up-to-date result)", repositoryKeys);
+		}
+
+		Request request = new Request(section, new ArtifactIndex(dependencyMap), cache, cdvConfiguration,
+				metadataRepositories, getLookupKeyPrefix(repositoryKeys, metadataLookup),
+				String.join(", ", repositoryKeys));
+		int reusedCount = 0;
+
+		for (ArtifactId artifactId : request.artifactIndex.getArtifactIds()) {
+			long lookupStart = System.nanoTime();
+			String fingerprint = DependencyVersionState.getFingerprint(repositoryKeys,
+					request.artifactIndex.getDeclarations(artifactId));
+
+			request.fingerprints.put(artifactId, fingerprint);
+
+			// Unchanged declarations with a not yet expired previous result do not need any lookup
+			LatestVersion previousLatestVersion = this.state.get(section, artifactId, fingerprint);
+			// Accepted versions do not need any lookup either (unless the baseline is being updated)
+			LatestVersion baselineLatestVersion = (previousLatestVersion == null && this.baseline != null
+					&& !this.updateBaseline ? this.baseline.get(artifactId) : null);
+			String lookupSelector = request.artifactIndex.getLookupSelector(artifactId);
+			LatestVersion cachedLatestVersion = (previousLatestVersion == null && baselineLatestVersion == null
+					? cache.get(artifactId, lookupSelector)
+					: null);
+
+			if (previousLatestVersion != null) {
+				this.logger.debug("Re-using previous latest version for dependency {}: {}", artifactId,
+						previousLatestVersion);
+
+				request.latestVersions.put(artifactId, previousLatestVersion);
+				request.recordLatency(artifactId, lookupStart);
+				this.statistics.recordCacheHit(request.source);
+				reusedCount++;
+			} else if (baselineLatestVersion != null) {
+				this.logger.info("Using baseline latest version for dependency {}: {}", artifactId,
+						baselineLatestVersion);
+
+				request.latestVersions.put(artifactId, baselineLatestVersion);
+				request.recordLatency(artifactId, lookupStart);
+				this.statistics.recordCacheHit(request.source);
+			} else if (cachedLatestVersion != null) {
+				this.logger.info("Using cached latest version for dependency {}: {}", artifactId, cachedLatestVersion);
+
+				request.latestVersions.put(artifactId, cachedLatestVersion);
+				request.recordLatency(artifactId, lookupStart);
+				this.statistics.recordCacheHit(request.source);
+			} else {
+				request.lookupArtifactIds.add(artifactId);
+				this.statistics.recordCacheMiss(request.source);
+			}
+		}
+		if (reusedCount > 0) {
+			this.logger.info("Re-using {} previous latest version(s) for unchanged dependencies", reusedCount);
+		}
+		this.requests.add(request);
+		return request;
+	}
+
+	public LookupStatistics getStatistics() {
+		return this.statistics;
+	}
+
+	private String getLookupKeyPrefix(List<String> repositoryKeys, boolean metadataLookup) {
+		StringBuilder lookupKeyPrefix = new StringBuilder();
+
+		if (this.offline) {
+			lookupKeyPrefix.append("offline");
+		} else if (metadataLookup) {
+			lookupKeyPrefix.append(CheckDependencyVersions.LOOKUP_ENGINE_MAVEN);
+		} else {
+			lookupKeyPrefix.append(CheckDependencyVersions.LOOKUP_ENGINE_GRADLE);
+		}
+		for (String repositoryKey : repositoryKeys) {
+			lookupKeyPrefix.append('|').append(repositoryKey);
+		}
+		return lookupKeyPrefix.append('|').toString();
+	}
+
+	@Nullable
+	private List<MavenMetadataClient.Repository> getMetadataRepositories(RepositoryHandler repositories) {
+		List<MavenMetadataClient.Repository> metadataRepositories = new ArrayList<>();
+
+		for (ArtifactRepository repository : repositories) {
+			MavenMetadataClient.Repository metadataRepository = (repository instanceof MavenArtifactRepository
+					? getMetadataRepository((MavenArtifactRepository) repository)
+					: null);
+
+			// Only plain Maven repositories are supported; everything else is left to Gradle's resolution
+			if (metadataRepository == null) {
+				this.logger.info("Unable to fetch metadata due to unsupported repository {}", repository.getName());
+
+				metadataRepositories = null;
+				break;
+			}
+			metadataRepositories.add(metadataRepository);
+		}
+		return metadataRepositories;
+	}
+
+	@Nullable
+	private static MavenMetadataClient.Repository getMetadataRepository(MavenArtifactRepository repository) {
+		URI repositoryUrl = repository.getUrl();
+		String repositoryScheme = repositoryUrl.getScheme();
+		MavenMetadataClient.Repository metadataRepository = null;
+
+		if ("file".equals(repositoryScheme)) {
+			metadataRepository = new MavenMetadataClient.Repository(repositoryUrl);
+		} else if (METADATA_REPOSITORY_SCHEMES.contains(repositoryScheme)) {
+			AuthenticationContainer authentications = repository.getAuthentication();
+
+			// Credentials are only queried for an explicitly declared authentication scheme (querying them otherwise
+			// would create empty credentials for the repository)
+			if (authentications.isEmpty()) {
+				metadataRepository = new MavenMetadataClient.Repository(repositoryUrl);
+			} else if (authentications.size() == 1) {
+				try {
+					metadataRepository = getMetadataRepository(repository, authentications.iterator().next());
+				} catch (@SuppressWarnings("unused") IllegalArgumentException e) {
+					// Credentials do not match the authentication scheme; leave the repository to Gradle's resolution
+					metadataRepository = null;
+				}
+			}
+		}
+		return metadataRepository;
+	}
+
+	@Nullable
+	private static MavenMetadataClient.Repository getMetadataRepository(MavenArtifactRepository repository,
+			Authentication authentication) {
+		URI repositoryUrl = repository.getUrl();
+		MavenMetadataClient.Repository metadataRepository = null;
+
+		if (authentication instanceof BasicAuthentication) {
+			PasswordCredentials credentials = repository.getCredentials(PasswordCredentials.class);
+			String username = credentials.getUsername();
+			String password = credentials.getPassword();
+
+			if (username != null && password != null) {
+				metadataRepository = new MavenMetadataClient.Repository(repositoryUrl, Collections
+						.singletonMap("Authorization", MavenMetadataClient.getBasicAuthorization(username, password)));
+			}
+		} else if (authentication instanceof HttpHeaderAuthentication) {
+			HttpHeaderCredentials credentials = repository.getCredentials(HttpHeaderCredentials.class);
+			String headerName = credentials.getName();
+			String headerValue = credentials.getValue();
+
+			if (headerName != null && headerValue != null) {
+				metadataRepository = new MavenMetadataClient.Repository(repositoryUrl,
+						Collections.singletonMap(headerName, headerValue));
+			}
+		}
+		return metadataRepository;
+	}
+
+	public void complete() {
+		this.lookupService.activateLookup(this.lookupId, this);
+		try {
+			for (Request request : this.requests) {
+				coalesceLookups(request);
+			}
+
+			WorkQueue workQueue = submitPendingLookups();
+
+			// Resolution requires the project lock; hence it has to run on the calling thread (while the pending
+			// lookups are processed by the workers); hence maxParallelLookups does not apply to the resolved lookups
+			for (Request request : this.requests) {
+				resolve(request);
+			}
+			if (workQueue != null) {
+				workQueue.await();
+			}
+		} finally {
+			this.lookupService.deactivateLookup(this.lookupId);
+			// Always publish our lookups (even if incomplete) to never block any other task waiting for them
+			for (Request request : this.requests) {
+				request.publishLookups();
+			}
+		}
+		for (Request request : this.requests) {
+			request.awaitLookups();
+		}
+		for (Request request : this.requests) {
+			try {
+				request.cache.save();
+			} catch (IOException e) {
+				this.logger.warn("Failed to update dependency version cache", e);
+			}
+			request.latestVersions.forEach((artifactId, latestVersion) -> this.state.put(request.section, artifactId,
+					Objects.requireNonNull(request.fingerprints.get(artifactId)), latestVersion));
+		}
+		try {
+			this.state.save();
+		} catch (IOException e) {
+			this.logger.warn("Failed to update dependency version state", e);
+		}
+		if (this.baseline != null && this.updateBaseline) {
+			updateBaseline(this.baseline);
+		}
+		this.requests.clear();
+		this.pendingLookups.clear();
+	}
+
+	private void coalesceLookups(Request request) {
+		for (ArtifactId artifactId : request.lookupArtifactIds) {
+			String lookupSelector = request.artifactIndex.getLookupSelector(artifactId);
+			CompletableFuture<Optional<LatestVersion>> lookup = new CompletableFuture<>();
+			CompletableFuture<Optional<LatestVersion>> activeLookup = this.lookupService
+					.coalesce(request.lookupKeyPrefix + artifactId + ":" + lookupSelector, lookup);
+
+			if (activeLookup != lookup) {
+				this.logger.info("Awaiting concurrent lookup of latest version for dependency {}...", artifactId);
+
+				request.awaitedLookups.put(artifactId, activeLookup);
+			} else if (this.offline || request.metadataRepositories != null || request.cdvConfiguration == null) {
+				request.ownedLookups.put(artifactId, lookup);
+				this.pendingLookups.add(new PendingLookup(request, artifactId, lookupSelector));
+			} else {
+				this.logger.info("Checking latest version for dependency {}...", artifactId);
+
+				Dependency artifactDependency = this.project.getDependencies()
+						.create(artifactId + ":" + request.artifactIndex.getDependencyVersion(artifactId));
+
+				request.ownedLookups.put(artifactId, lookup);
+				Objects.requireNonNull(request.cdvConfiguration).getDependencies().add(artifactDependency);
+			}
+		}
+	}
+
+	private void updateBaseline(DependencyVersionBaseline checkedBaseline) {
+		for (Request request : this.requests) {
+			checkedBaseline.putAll(request);
+		}
+		try {
+			// The baseline file may be shared by the check tasks of several projects; hence serialize the updates
+			synchronized (this.lookupService.getFileLock(checkedBaseline.getFile())) {
+				checkedBaseline.save();
+			}
+			this.logger.lifecycle("Updated dependency version baseline {} ({} accepted version(s))",
+					checkedBaseline.getFile(), checkedBaseline.size());
+		} catch (IOException e) {
+			this.logger.warn("Failed to update dependency version baseline", e);
+		}
+	}
+
+	@Nullable
+	private WorkQueue submitPendingLookups() {
+		WorkQueue workQueue = null;
+		int pendingLookupCount = this.pendingLookups.size();
+
+		if (pendingLookupCount > 0) {
+			int batchCount = Math.min(Math.max(1, this.checkDependencyVersions.getMaxParallelLookups()),
+					pendingLookupCount);
+
+			workQueue = this.workerExecutor.noIsolation();
+			for (int batchIndex = 0; batchIndex < batchCount; batchIndex++) {
+				List<Integer> batchLookupIndices = new ArrayList<>();
+
+				for (int lookupIndex = batchIndex; lookupIndex < pendingLookupCount; lookupIndex += batchCount) {
+					batchLookupIndices.add(lookupIndex);
+				}
+				workQueue.submit(LatestVersionLookupWorkAction.class, parameters -> {
+					parameters.getLookupService().set(this.lookupService);
+					parameters.getLookupId().set(this.lookupId);
+					parameters.getLookupIndices().set(batchLookupIndices);
+				});
+			}
+		}
+		return workQueue;
+	}
+
+	void runPendingLookups(List<Integer> lookupIndices) {
+		for (Integer lookupIndex : lookupIndices) {
+			runPendingLookup(this.pendingLookups.get(lookupIndex.intValue()));
+		}
+	}
+
+	private void runPendingLookup(PendingLookup pendingLookup) {
+		long lookupStart = System.nanoTime();
+
+		// Requests neither resolvable nor supported by the metadata lookup fall back to the offline lookup
+		if (this.offline || pendingLookup.request.metadataRepositories == null) {
+			runOfflineLookup(pendingLookup);
+			this.statistics.recordLookup(MODULE_CACHE_SOURCE,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lookupStart));
+		} else {
+			runMetadataLookup(pendingLookup);
+		}
+		pendingLookup.request.recordLatency(pendingLookup.artifactId, lookupStart);
+	}
+
+	private void runMetadataLookup(PendingLookup pendingLookup) {
+		Request request = pendingLookup.request;
+		ArtifactId artifactId = pendingLookup.artifactId;
+		ArtifactVersionId latestArtifactVersionId = null;
+		boolean incomplete = false;
+
+		this.logger.info("Checking latest version for dependency {}...", artifactId);
+		for (MavenMetadataClient.Repository repository : Objects.requireNonNull(request.metadataRepositories)) {
+			long fetchStart = System.nanoTime();
+
+			try {
+				MavenMetadataClient.Metadata metadata = this.metadataClient.fetch(repository,
+						artifactId.getGroup(), artifactId.getName());
+
+				for (String version : metadata.getVersions()) {
+					ArtifactVersionId candidateArtifactVersionId = new ArtifactVersionId(artifactId.getGroup(),
+							artifactId.getName(), version);
+
+					if (request.artifactIndex.isCandidate(candidateArtifactVersionId)
+							&& (latestArtifactVersionId == null
+									|| candidateArtifactVersionId.compareTo(latestArtifactVersionId) > 0)) {
+						latestArtifactVersionId = candidateArtifactVersionId;
+					}
+				}
+			} catch (IOException e) {
+				this.logger.warn("Failed to fetch metadata for dependency {} from repository {}", artifactId,
+						repository, e);
+				incomplete = true;
+			}
+			this.statistics.recordLookup(repository.toString(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fetchStart));
+		}
+		// Artifacts not found in any repository are silently ignored (same as unresolved dependencies)
+		if (latestArtifactVersionId != null) {
+			// An incomplete result may miss the latest version of a failed repository; hence it is reported as stale
+			// and neither cached nor re-used by the next task execution
+			LatestVersion latestVersion = new LatestVersion(latestArtifactVersionId, System.currentTimeMillis(),
+					incomplete);
+
+			if (!incomplete) {
+				request.cache.put(artifactId, pendingLookup.lookupSelector, latestVersion);
+			}
+			request.latestVersions.put(artifactId, latestVersion);
+		}
+	}
+
+	private void runOfflineLookup(PendingLookup pendingLookup) {
+		Request request = pendingLookup.request;
+		ArtifactId artifactId = pendingLookup.artifactId;
+		LatestVersion offlineLatestVersion = getOfflineLatestVersion(request, artifactId, pendingLookup.lookupSelector);
+
+		if (offlineLatestVersion != null) {
+			this.logger.info("Using offline latest version for dependency {}: {}", artifactId, offlineLatestVersion);
+
+			request.latestVersions.put(artifactId, offlineLatestVersion);
+		} else {
+			this.logger.info("No offline latest version available for dependency {}", artifactId);
+		}
+	}
+
+	private void resolve(Request request) {
+		Configuration cdvConfiguration = request.cdvConfiguration;
+
+		if (cdvConfiguration != null && !cdvConfiguration.getDependencies().isEmpty()) {
+			ArtifactIndex artifactIndex = request.artifactIndex;
+
+			cdvConfiguration.resolutionStrategy(resolutionStrategy -> resolutionStrategy
+					.componentSelection(componentSelectionRules -> componentSelectionRules
+							.all(componentSelection -> filterComponentenSelection(request, componentSelection))));
+
+			// Only walk the resolution result graph (which requires the module metadata only) and never touch the
+			// resolved artifacts (which would trigger the download of the actual artifact files)
+			long resolveStart = System.nanoTime();
+			ResolutionResult cdvResolutionResult = cdvConfiguration.getIncoming().getResolutionResult();
+			Map<ArtifactId, LatestVersion> resolvedVersionsMap = buildResolvedVersionsMap(cdvResolutionResult);
+
+			// All artifacts are resolved at once; hence they share the same latency
+			long resolveLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - resolveStart);
+
+			for (Dependency dependency : cdvConfiguration.getDependencies()) {
+				request.latencies.put(new ArtifactId(Strings.safe(dependency.getGroup()), dependency.getName()),
+						resolveLatency);
+				this.statistics.recordLookup(request.source, resolveLatency);
+			}
+
+			resolvedVersionsMap.forEach((artifactId, resolvedLatestVersion) -> request.cache.put(artifactId,
+					artifactIndex.getLookupSelector(artifactId), resolvedLatestVersion));
+			request.latestVersions.putAll(resolvedVersionsMap);
+		}
+	}
+
+	@Nullable
+	private LatestVersion getOfflineLatestVersion(Request request, ArtifactId artifactId, String lookupSelector) {
+		LatestVersion cachedLatestVersion = request.cache.getAny(artifactId, lookupSelector);
+		LatestVersion moduleCacheLatestVersion = this.moduleCache.getLatestVersion(artifactId,
+				request.artifactIndex::isCandidate);
+		LatestVersion offlineLatestVersion;
+
+		if (cachedLatestVersion == null) {
+			offlineLatestVersion = moduleCacheLatestVersion;
+		} else if (moduleCacheLatestVersion == null) {
+			offlineLatestVersion = cachedLatestVersion;
+		} else {
+			// The module cache may contain a newer version than the one we looked up the last time
+			offlineLatestVersion = (moduleCacheLatestVersion.isNewerThan(cachedLatestVersion)
+					? moduleCacheLatestVersion
+					: cachedLatestVersion);
+		}
+		return offlineLatestVersion;
+	}
+
+	private void filterComponentenSelection(Request request, ComponentSelection componentSelection) {
+		ArtifactVersionId candidateArtifactVersionId = getCandidateArtifactVersionId(componentSelection.getCandidate());
+
+		if (!request.artifactIndex.isCandidate(candidateArtifactVersionId)) {
+			componentSelection.reject("Ignoring candidate " + candidateArtifactVersionId);
+			this.statistics.recordRejectedSelection(request.source);
+		}
+	}
+
+	private Map<ArtifactId, LatestVersion> buildResolvedVersionsMap(ResolutionResult resolutionResult) {
+		Map<ArtifactId, LatestVersion> resolvedVersionsMap = new HashMap<>();
+		long resolvedTimestamp = System.currentTimeMillis();
+
+		for (DependencyResult dependency : resolutionResult.getRoot().getDependencies()) {
+			// Unresolved dependencies are silently ignored (same as lenient artifact resolution)
+			if (dependency instanceof ResolvedDependencyResult) {
+				ModuleVersionIdentifier moduleVersion = ((ResolvedDependencyResult) dependency).getSelected()
+						.getModuleVersion();
+
+				if (moduleVersion != null) {
+					ArtifactVersionId resolvedArtifactVersionId = getResolvedArtifactVersionId(moduleVersion);
+
+					resolvedVersionsMap.put(resolvedArtifactVersionId.getArtifactId(),
+							new LatestVersion(resolvedArtifactVersionId, resolvedTimestamp, false));
+				}
+			}
+		}
+		return resolvedVersionsMap;
+	}
+
+	private ArtifactVersionId getResolvedArtifactVersionId(ModuleVersionIdentifier moduleVersion) {
+		return new ArtifactVersionId(moduleVersion.getGroup(), moduleVersion.getName(), moduleVersion.getVersion());
+	}
+
+	private ArtifactVersionId getCandidateArtifactVersionId(ModuleComponentIdentifier candidate) {
+		return new ArtifactVersionId(candidate.getGroup(), candidate.getModule(), candidate.getVersion());
+	}
+
+	static class Request {
+
+		final String section;
+		final ArtifactIndex artifactIndex;
+		final DependencyVersionCache cache;
+		@Nullable
+		final Configuration cdvConfiguration;
+		@Nullable
+		final List<MavenMetadataClient.Repository> metadataRepositories;
+		final String lookupKeyPrefix;
+		final String source;
+		final Map<ArtifactId, String> fingerprints = new HashMap<>();
+		final List<ArtifactId> lookupArtifactIds = new ArrayList<>();
+		final Map<ArtifactId, CompletableFuture<Optional<LatestVersion>>> ownedLookups = new HashMap<>();
+		final Map<ArtifactId, CompletableFuture<Optional<LatestVersion>>> awaitedLookups = new HashMap<>();
+		final Map<ArtifactId, LatestVersion> latestVersions = new ConcurrentHashMap<>();
+		final Map<ArtifactId, Long> latencies = new ConcurrentHashMap<>();
+
+		Request(String section, ArtifactIndex artifactIndex, DependencyVersionCache cache,
+				@Nullable Configuration cdvConfiguration,
+				@Nullable List<MavenMetadataClient.Repository> metadataRepositories, String lookupKeyPrefix,
+				String source) {
+			this.section = section;
+			this.artifactIndex = artifactIndex;
+			this.cache = cache;
+			this.cdvConfiguration = cdvConfiguration;
+			this.metadataRepositories = metadataRepositories;
+			this.lookupKeyPrefix = lookupKeyPrefix;
+			this.source = source;
+		}
+
+		public Map<ArtifactId, LatestVersion> getLatestVersions() {
+			return this.latestVersions;
+		}
+
+		public long getLatency(ArtifactId artifactId) {
+			return this.latencies.getOrDefault(artifactId, -1L).longValue();
+		}
+
+		void recordLatency(ArtifactId artifactId, long lookupStart) {
+			this.latencies.put(artifactId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lookupStart));
+		}
+
+		void publishLookups() {
+			this.ownedLookups.forEach((artifactId, lookup) -> lookup
+					.complete(Optional.ofNullable(this.latestVersions.get(artifactId))));
+		}
+
+		void awaitLookups() {
+			this.awaitedLookups.forEach((artifactId, lookup) -> {
+				long lookupStart = System.nanoTime();
+				Optional<LatestVersion> latestVersion = lookup.join();
+
+				latestVersion.ifPresent(checkedLatestVersion -> this.latestVersions.put(artifactId,
+						checkedLatestVersion));
+				recordLatency(artifactId, lookupStart);
+			});
+		}
+
+	}
+
+	private static class PendingLookup {
+
+		final Request request;
+		final ArtifactId artifactId;
+		final String lookupSelector;
+
+		PendingLookup(Request request, ArtifactId artifactId, String lookupSelector) {
+			this.request = request;
+			this.artifactId = artifactId;
+			this.lookupSelector = lookupSelector;
+		}
+
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Build service coordinating the latest version lookups of all dependency version check tasks of a build.
+ * <p>
+ * Every lookup is identified by a key (covering the repositories and the lookup selector) and executed only once per
+ * build. Tasks requesting a lookup already in progress (or already done) by another task wait for its result instead
+ * of looking up the same artifact again. Furthermore the service serializes the updates of files shared by several
+ * tasks (e.g. the baseline file), hands over the active lookups of the tasks to the Worker API actions executing
+ * them and provides the {@linkplain DependencyGraphWalker} shared by all tasks of the build.
+ */
+public abstract class LatestVersionLookupService implements BuildService<BuildServiceParameters.None> {
+
+	private static final String LATEST_VERSION_LOOKUP_SERVICE_NAME = "de.carne.java-tools.latestVersionLookup";
+
+	private final Map<String, CompletableFuture<Optional<LatestVersion>>> lookups = new ConcurrentHashMap<>();
+	private final Map<String, Object> fileLocks = new ConcurrentHashMap<>();
+	private final Map<String, LatestVersionLookup> activeLookups = new ConcurrentHashMap<>();
+	private final DependencyGraphWalker dependencyGraphWalker = new DependencyGraphWalker();
+
+	/**
+	 * Registers the {@linkplain LatestVersionLookupService} (if not yet registered by another project).
+	 *
+	 * @param project the {@linkplain Project} requesting the service.
+	 * @return the {@linkplain Provider} of the build's {@linkplain LatestVersionLookupService} instance.
+	 */
+	public static Provider<LatestVersionLookupService> register(Project project) {
+		return project.getGradle().getSharedServices().registerIfAbsent(LATEST_VERSION_LOOKUP_SERVICE_NAME,
+				LatestVersionLookupService.class, spec -> {
+					// Nothing to configure
+				});
+	}
+
+	CompletableFuture<Optional<LatestVersion>> coalesce(String lookupKey,
+			CompletableFuture<Optional<LatestVersion>> lookup) {
+		CompletableFuture<Optional<LatestVersion>> activeLookup = this.lookups.putIfAbsent(lookupKey, lookup);
+
+		return (activeLookup != null ? activeLookup : lookup);
+	}
+
+	void activateLookup(String lookupId, LatestVersionLookup lookup) {
+		this.activeLookups.put(lookupId, lookup);
+	}
+
+	void deactivateLookup(String lookupId) {
+		this.activeLookups.remove(lookupId);
+	}
+
+	LatestVersionLookup getActiveLookup(String lookupId) {
+		LatestVersionLookup lookup = this.activeLookups.get(lookupId);
+
+		if (lookup == null) {
+			throw new IllegalStateException("Unknown lookup: " + lookupId);
+		}
+		return lookup;
+	}
+
+	Object getFileLock(File file) {
+		return this.fileLocks.computeIfAbsent(file.getAbsolutePath(), key -> new Object());
+	}
+
+	DependencyGraphWalker getDependencyGraphWalker() {
+		return this.dependencyGraphWalker;
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+/**
+ * Worker API action executing a batch of pending latest version lookups.
+ */
+public abstract class LatestVersionLookupWorkAction implements WorkAction<LatestVersionLookupWorkAction.Parameters> {
+
+	/**
+	 * The parameters of a {@linkplain LatestVersionLookupWorkAction}.
+	 */
+	public interface Parameters extends WorkParameters {
+
+		/**
+		 * Gets the {@linkplain LatestVersionLookupService} holding the active lookup.
+		 *
+		 * @return the {@linkplain LatestVersionLookupService} holding the active lookup.
+		 */
+		Property<LatestVersionLookupService> getLookupService();
+
+		/**
+		 * Gets the id of the lookup the pending lookups belong to.
+		 *
+		 * @return the id of the lookup the pending lookups belong to.
+		 */
+		Property<String> getLookupId();
+
+		/**
+		 * Gets the indices of the pending lookups to execute.
+		 *
+		 * @return the indices of the pending lookups to execute.
+		 */
+		ListProperty<Integer> getLookupIndices();
+
+	}
+
+	@Override
+	public void execute() {
+		Parameters parameters = getParameters();
+
+		parameters.getLookupService().get().getActiveLookup(parameters.getLookupId().get())
+				.runPendingLookups(parameters.getLookupIndices().get());
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.gradle.api.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Collects the latest version lookup statistics per lookup source (repository).
+ * <p>
+ * Lookups resolved via Gradle's dependency resolution cannot be attributed to a single repository; these are recorded
+ * for the complete repository set (which is the repository itself in the common single repository case).
+ */
+class LookupStatistics {
+
+	private static final int[] PERCENTILES = { 50, 90, 99 };
+
+	private final Map<String, Entry> entries = new TreeMap<>();
+
+	public synchronized void recordCacheHit(String source) {
+		getEntry(source).cacheHits++;
+	}
+
+	public synchronized void recordCacheMiss(String source) {
+		getEntry(source).cacheMisses++;
+	}
+
+	public synchronized void recordLookup(String source, long latency) {
+		getEntry(source).latencies.add(latency);
+	}
+
+	public synchronized void recordRejectedSelection(String source) {
+		getEntry(source).rejectedSelections++;
+	}
+
+	private Entry getEntry(String source) {
+		return this.entries.computeIfAbsent(source, key -> new Entry());
+	}
+
+	public synchronized void report(Logger logger) {
+		if (!this.entries.isEmpty()) {
+			logger.lifecycle("Dependency lookup statistics:");
+			this.entries.forEach((source, entry) -> {
+				long[] sortedLatencies = entry.getSortedLatencies();
+				StringBuilder latencies = new StringBuilder();
+
+				for (int percentile : PERCENTILES) {
+					latencies.append(
+							String.format("p%1$d=%2$d, ", percentile, getPercentile(sortedLatencies, percentile)));
+				}
+				latencies.append(String.format("max=%1$d", getPercentile(sortedLatencies, 100)));
+				logger.lifecycle("  Source {}", source);
+				logger.lifecycle("    lookups: {}, cache hits: {}, cache misses: {}, rejected selections: {}",
+						entry.latencies.size(), entry.cacheHits, entry.cacheMisses, entry.rejectedSelections);
+				logger.lifecycle("    latency (ms): {}", latencies);
+			});
+		}
+	}
+
+	public synchronized void write(File file) throws IOException {
+		Files.createDirectories(file.getParentFile().toPath());
+		try (JsonGenerator json = new JsonFactory().createGenerator(file, JsonEncoding.UTF8)
+				.useDefaultPrettyPrinter()) {
+			json.writeStartObject();
+			json.writeNumberField("timestamp", System.currentTimeMillis());
+			json.writeArrayFieldStart("sources");
+			for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+				Entry sourceEntry = entry.getValue();
+				long[] sortedLatencies = sourceEntry.getSortedLatencies();
+
+				json.writeStartObject();
+				json.writeStringField("source", entry.getKey());
+				json.writeNumberField("lookups", sourceEntry.latencies.size());
+				json.writeNumberField("cacheHits", sourceEntry.cacheHits);
+				json.writeNumberField("cacheMisses", sourceEntry.cacheMisses);
+				json.writeNumberField("rejectedSelections", sourceEntry.rejectedSelections);
+				json.writeObjectFieldStart("latencyMillis");
+				for (int percentile : PERCENTILES) {
+					json.writeNumberField("p" + percentile, getPercentile(sortedLatencies, percentile));
+				}
+				json.writeNumberField("max", getPercentile(sortedLatencies, 100));
+				json.writeEndObject();
+				json.writeEndObject();
+			}
+			json.writeEndArray();
+			json.writeEndObject();
+		}
+	}
+
+	private static long getPercentile(long[] sortedLatencies, int percentile) {
+		long value = 0;
+
+		if (sortedLatencies.length > 0) {
+			// Nearest-rank method
+			int rank = (percentile * sortedLatencies.length + 99) / 100;
+
+			value = sortedLatencies[Math.max(rank, 1) - 1];
+		}
+		return value;
+	}
+
+	private static class Entry {
+
+		final List<Long> latencies = new ArrayList<>();
+		int cacheHits = 0;
+		int cacheMisses = 0;
+		int rejectedSelections = 0;
+
+		Entry() {
+			// Nothing to do here
+		}
+
+		long[] getSortedLatencies() {
+			// Sorted once per report; all percentiles are taken from the same sorted samples
+			long[] sortedLatencies = this.latencies.stream().mapToLong(Long::longValue).toArray();
+
+			Arrays.sort(sortedLatencies);
+			return sortedLatencies;
+		}
+
+	}
+
+}
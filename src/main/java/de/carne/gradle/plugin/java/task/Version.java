@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Parsed version string used for version ordering.
+ * <p>
+ * A version string is split into its {@code '.'} separated tokens. Every token is split into a leading numeric part
+ * and a trailing suffix. Numeric parts are compared numerically, everything else is compared lexicographically and
+ * missing tokens are considered {@code 0} (hence {@code 1.0} and {@code 1.0.0} are equal). The parsed tokens are
+ * stored as flat arrays, hence comparing two versions does not allocate any objects. The most recently used versions
+ * are cached, hence a version string recurring during a build is parsed only once (without keeping every version
+ * string ever seen alive for the daemon's lifetime).
+ */
+public final class Version implements Comparable<Version> {
+
+	private static final int VERSIONS_CACHE_LIMIT = 4096;
+
+	private static final Map<String, Version> VERSIONS = Collections
+			.synchronizedMap(new LinkedHashMap<String, Version>(VERSIONS_CACHE_LIMIT, 0.75f, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.@Nullable Entry<String, Version> eldest) {
+					return size() > VERSIONS_CACHE_LIMIT;
+				}
+
+			});
+
+	private static final int NOT_NUMERIC = -1;
+	private static final String EMPTY = "";
+	private static final String ZERO = "0";
+
+	private final String versionString;
+	private final int[] tokenNumbers;
+	private final String[] tokenTexts;
+	private final String[] tokenSuffixes;
+	private final int hash;
+
+	private Version(String versionString) {
+		List<String> tokens = new ArrayList<>();
+		StringTokenizer tokenizer = new StringTokenizer(versionString, ".", false);
+
+		while (tokenizer.hasMoreTokens()) {
+			tokens.add(tokenizer.nextToken());
+		}
+
+		int tokenCount = tokens.size();
+
+		this.versionString = versionString;
+		this.tokenNumbers = new int[tokenCount];
+		this.tokenTexts = new String[tokenCount];
+		this.tokenSuffixes = new String[tokenCount];
+
+		for (int tokenIndex = 0; tokenIndex < tokenCount; tokenIndex++) {
+			parseToken(tokenIndex, tokens.get(tokenIndex));
+		}
+
+		// Trailing zero tokens are equivalent to missing tokens and therefore must not contribute to the hash
+		int hashTokenCount = tokenCount;
+
+		while (hashTokenCount > 0 && this.tokenNumbers[hashTokenCount - 1] == 0
+				&& this.tokenSuffixes[hashTokenCount - 1].isEmpty()) {
+			hashTokenCount--;
+		}
+
+		int tokenHash = 0;
+
+		for (int tokenIndex = 0; tokenIndex < hashTokenCount; tokenIndex++) {
+			tokenHash = 31 * tokenHash + (this.tokenNumbers[tokenIndex] != NOT_NUMERIC
+					? this.tokenNumbers[tokenIndex]
+					: this.tokenTexts[tokenIndex].hashCode());
+			tokenHash = 31 * tokenHash + this.tokenSuffixes[tokenIndex].hashCode();
+		}
+		this.hash = tokenHash;
+	}
+
+	private void parseToken(int tokenIndex, String token) {
+		int tokenLength = token.length();
+		int digitsLength = 0;
+
+		while (digitsLength < tokenLength && isDigit(token.charAt(digitsLength))) {
+			digitsLength++;
+		}
+
+		int number = NOT_NUMERIC;
+
+		if (digitsLength > 0) {
+			try {
+				number = Integer.parseInt(token.substring(0, digitsLength));
+			} catch (@SuppressWarnings("unused") NumberFormatException e) {
+				// Too large to be handled numerically; compare the token as a whole
+			}
+		}
+		if (number != NOT_NUMERIC) {
+			this.tokenNumbers[tokenIndex] = number;
+			this.tokenTexts[tokenIndex] = Integer.toString(number);
+			this.tokenSuffixes[tokenIndex] = token.substring(digitsLength);
+		} else {
+			this.tokenNumbers[tokenIndex] = NOT_NUMERIC;
+			this.tokenTexts[tokenIndex] = token;
+			this.tokenSuffixes[tokenIndex] = EMPTY;
+		}
+	}
+
+	private static boolean isDigit(char ch) {
+		return '0' <= ch && ch <= '9';
+	}
+
+	/**
+	 * Gets the {@linkplain Version} instance for a version string.
+	 *
+	 * @param versionString the version string to get the {@linkplain Version} instance for.
+	 * @return the {@linkplain Version} instance for the given version string.
+	 */
+	public static Version valueOf(String versionString) {
+		return VERSIONS.computeIfAbsent(versionString, Version::new);
+	}
+
+	@Override
+	public int compareTo(Version o) {
+		int tokenCount = Math.max(this.tokenNumbers.length, o.tokenNumbers.length);
+		int comparison = 0;
+
+		for (int tokenIndex = 0; comparison == 0 && tokenIndex < tokenCount; tokenIndex++) {
+			int thisNumber = tokenNumber(this, tokenIndex);
+			int oNumber = tokenNumber(o, tokenIndex);
+
+			if (thisNumber != NOT_NUMERIC && oNumber != NOT_NUMERIC) {
+				comparison = Integer.compare(thisNumber, oNumber);
+			} else {
+				comparison = tokenText(this, tokenIndex).compareTo(tokenText(o, tokenIndex));
+			}
+			if (comparison == 0) {
+				comparison = tokenSuffix(this, tokenIndex).compareTo(tokenSuffix(o, tokenIndex));
+			}
+		}
+		return comparison;
+	}
+
+	private static int tokenNumber(Version version, int tokenIndex) {
+		return (tokenIndex < version.tokenNumbers.length ? version.tokenNumbers[tokenIndex] : 0);
+	}
+
+	private static String tokenText(Version version, int tokenIndex) {
+		return (tokenIndex < version.tokenTexts.length ? version.tokenTexts[tokenIndex] : ZERO);
+	}
+
+	private static String tokenSuffix(Version version, int tokenIndex) {
+		return (tokenIndex < version.tokenSuffixes.length ? version.tokenSuffixes[tokenIndex] : EMPTY);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		return this == obj || (obj instanceof Version && compareTo((Version) obj) == 0);
+	}
+
+	@Override
+	public String toString() {
+		return this.versionString;
+	}
+
+}
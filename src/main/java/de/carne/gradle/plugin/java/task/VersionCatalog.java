@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+
+import de.carne.gradle.plugin.java.ext.CheckDependencyVersions;
+import de.carne.gradle.plugin.java.util.ProjectLogger;
+import de.carne.gradle.plugin.java.util.TomlReader;
+
+/**
+ * Reads the libraries declared in a Gradle version catalog (libs.versions.toml) file.
+ * <p>
+ * The catalog is a build wide declaration; hence it is only checked in the context of the root project. Libraries
+ * without a version (e.g. managed by a platform) are ignored.
+ */
+class VersionCatalog {
+
+	private static final String VERSIONS_TABLE = "versions";
+	private static final String LIBRARIES_TABLE = "libraries";
+	private static final String MODULE_KEY = "module";
+	private static final String GROUP_KEY = "group";
+	private static final String NAME_KEY = "name";
+	private static final String VERSION_KEY = "version";
+	private static final String VERSION_REF_KEY = "ref";
+	// Rich version kinds in order of precedence (the preferred version is the one actually selected in most cases)
+	private static final List<String> RICH_VERSION_KEYS = Arrays.asList("prefer", "require", "strictly");
+	private static final Set<String> LIBRARY_KEYS = new HashSet<>(
+			Arrays.asList(MODULE_KEY, GROUP_KEY, NAME_KEY, VERSION_KEY));
+
+	private final Map<String, RichVersion> versions = new HashMap<>();
+	private final Map<String, Library> libraries = new LinkedHashMap<>();
+
+	private VersionCatalog() {
+		// Nothing to do here
+	}
+
+	public static DependencyMap getDependencyMap(Project project, CheckDependencyVersions checkDependencyVersions) {
+		File catalogFile = checkDependencyVersions.getVersionCatalogFile();
+
+		return (project.equals(project.getRootProject()) && catalogFile.isFile()
+				? DependencyMap.fromVersionCatalog(project, catalogFile)
+				: new DependencyMap());
+	}
+
+	@Nullable
+	public static LatestVersionLookup.Request submit(LatestVersionLookup lookup, String section, Project rootProject,
+			DependencyMap catalogDependencyMap) {
+		LatestVersionLookup.Request request = null;
+
+		if (!catalogDependencyMap.isEmpty()) {
+			Project lookupProject = getLookupProject(rootProject);
+			// Only the root project's repositories are resolved (the ones of any other lookup project must not be
+			// touched); otherwise the catalog is looked up without a resolution
+			Configuration cdvConfiguration = (lookupProject.equals(rootProject)
+					? rootProject.getConfigurations().detachedConfiguration().setVisible(false).setTransitive(false)
+					: null);
+
+			request = lookup.submit(section, catalogDependencyMap, cdvConfiguration, lookupProject.getRepositories());
+		}
+		return request;
+	}
+
+	private static Project getLookupProject(Project rootProject) {
+		Project lookupProject = rootProject;
+
+		// Repositories are often declared by the sub-projects only; use the first one declaring any
+		if (rootProject.getRepositories().isEmpty()) {
+			for (Project project : rootProject.getAllprojects()) {
+				if (lookupProject == rootProject && !project.getRepositories().isEmpty()) {
+					lookupProject = project;
+				}
+			}
+		}
+		return lookupProject;
+	}
+
+	public static void read(File catalogFile, Consumer<ArtifactVersionId> consumer) {
+		VersionCatalog catalog = new VersionCatalog();
+
+		try (Reader catalogReader = Files.newBufferedReader(catalogFile.toPath(), StandardCharsets.UTF_8)) {
+			new TomlReader(catalogReader).read(catalog::readValue);
+		} catch (IOException e) {
+			ProjectLogger.warn("Failed to read version catalog file " + catalogFile, e);
+		}
+		catalog.libraries.values().forEach(library -> library.accept(catalog.versions, consumer));
+	}
+
+	private void readValue(List<String> key, String value) {
+		int keySize = key.size();
+
+		if (keySize > 1 && VERSIONS_TABLE.equals(key.get(0))) {
+			// alias = "..." or alias = { require = "...", ... }
+			String lastKey = key.get(keySize - 1);
+			boolean richVersion = keySize > 2 && RICH_VERSION_KEYS.contains(lastKey);
+
+			this.versions.computeIfAbsent(getAlias(key, 1, (richVersion ? keySize - 1 : keySize)),
+					alias -> new RichVersion()).set((richVersion ? lastKey : null), value);
+		} else if (keySize > 1 && LIBRARIES_TABLE.equals(key.get(0))) {
+			readLibraryValue(key, value);
+		}
+	}
+
+	private void readLibraryValue(List<String> key, String value) {
+		int keySize = key.size();
+		String lastKey = key.get(keySize - 1);
+		String versionKey = (keySize > 3 ? key.get(keySize - 2) : "");
+
+		if (VERSION_KEY.equals(versionKey) && VERSION_REF_KEY.equals(lastKey)) {
+			getLibrary(getAlias(key, 1, keySize - 2)).versionRef = value;
+		} else if (VERSION_KEY.equals(versionKey) && RICH_VERSION_KEYS.contains(lastKey)) {
+			getLibrary(getAlias(key, 1, keySize - 2)).version.set(lastKey, value);
+		} else if (keySize > 2 && LIBRARY_KEYS.contains(lastKey)) {
+			getLibrary(getAlias(key, 1, keySize - 1)).set(lastKey, value);
+		} else {
+			// Short notation: alias = "group:name:version"
+			String[] coordinates = value.split(":");
+			Library library = getLibrary(getAlias(key, 1, keySize));
+
+			if (coordinates.length == 3) {
+				library.group = coordinates[0];
+				library.name = coordinates[1];
+				library.version.set(null, coordinates[2]);
+			}
+		}
+	}
+
+	private Library getLibrary(String alias) {
+		return this.libraries.computeIfAbsent(alias, key -> new Library());
+	}
+
+	private static String getAlias(List<String> key, int from, int to) {
+		return String.join(".", key.subList(from, to));
+	}
+
+	private static class Library {
+
+		@Nullable
+		String group = null;
+		@Nullable
+		String name = null;
+		final RichVersion version = new RichVersion();
+		@Nullable
+		String versionRef = null;
+
+		Library() {
+			// Nothing to do here
+		}
+
+		void set(String key, String value) {
+			if (MODULE_KEY.equals(key)) {
+				int separatorIndex = value.indexOf(':');
+
+				if (separatorIndex > 0) {
+					this.group = value.substring(0, separatorIndex);
+					this.name = value.substring(separatorIndex + 1);
+				}
+			} else if (GROUP_KEY.equals(key)) {
+				this.group = value;
+			} else if (NAME_KEY.equals(key)) {
+				this.name = value;
+			} else {
+				this.version.set(null, value);
+			}
+		}
+
+		void accept(Map<String, RichVersion> versions, Consumer<ArtifactVersionId> consumer) {
+			String checkedGroup = this.group;
+			String checkedName = this.name;
+			String checkedVersionRef = this.versionRef;
+			RichVersion richVersion = (checkedVersionRef != null ? versions.get(checkedVersionRef) : this.version);
+			String checkedVersion = (richVersion != null ? richVersion.value : null);
+
+			if (checkedGroup != null && checkedName != null && checkedVersion != null) {
+				consumer.accept(new ArtifactVersionId(checkedGroup, checkedName, checkedVersion));
+			}
+		}
+
+	}
+
+	private static class RichVersion {
+
+		@Nullable
+		String value = null;
+		int precedence = Integer.MAX_VALUE;
+
+		RichVersion() {
+			// Nothing to do here
+		}
+
+		void set(@Nullable String kind, String kindValue) {
+			// A plain version always wins; otherwise use the rich version kind with the highest precedence
+			int kindPrecedence = (kind != null ? RICH_VERSION_KEYS.indexOf(kind) : -1);
+
+			if (kindPrecedence < this.precedence) {
+				this.value = kindValue;
+				this.precedence = kindPrecedence;
+			}
+		}
+
+	}
+
+}
@@ -92,4 +92,42 @@ public final class JavaOutput {
 		return encoded.toString();
 	}
 
+	private static final Map<Character, String> ENCODE_JAVA_STRING_MAP = new HashMap<>();
+
+	static {
+		ENCODE_JAVA_STRING_MAP.put('\b', "\\b");
+		ENCODE_JAVA_STRING_MAP.put('\t', "\\t");
+		ENCODE_JAVA_STRING_MAP.put('\n', "\\n");
+		ENCODE_JAVA_STRING_MAP.put('\f', "\\f");
+		ENCODE_JAVA_STRING_MAP.put('\r', "\\r");
+		ENCODE_JAVA_STRING_MAP.put('"', "\\\"");
+		ENCODE_JAVA_STRING_MAP.put('\\', "\\\\");
+	}
+
+	/**
+	 * Encodes a {@linkplain String} as the content of a Java string literal.
+	 * <p>
+	 * Any non-ASCII character is encoded as an unicode escape, hence the result is independent of the source file
+	 * encoding.
+	 *
+	 * @param string the {@linkplain String} to encode.
+	 * @return the encoded string data.
+	 */
+	public static String encodeJavaString(String string) {
+		StringBuilder encoded = new StringBuilder();
+
+		string.chars().forEachOrdered(code -> {
+			String mappedCode = ENCODE_JAVA_STRING_MAP.get(Character.valueOf((char) code));
+
+			if (mappedCode != null) {
+				encoded.append(mappedCode);
+			} else if (32 <= code && code <= 126) {
+				encoded.append((char) code);
+			} else {
+				encoded.append(String.format("\\u%04x", code));
+			}
+		});
+		return encoded.toString();
+	}
+
 }
@@ -0,0 +1,434 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.util;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Client used to fetch the available versions of an artifact from a Maven repository's {@code maven-metadata.xml}
+ * file.
+ * <p>
+ * Both {@code file} and {@code http(s)} repository URIs are supported. For the latter the {@code ETag} and
+ * {@code Last-Modified} headers of every fetched metadata file are stored in a state directory together with the
+ * fetched versions. Subsequent fetches of the same metadata file are sent as conditional requests and the stored
+ * versions are re-used if the server responds with {@code 304 Not Modified}. Repositories requiring authentication
+ * are accessed by adding the necessary request headers (see {@linkplain Repository}).
+ */
+public class MavenMetadataClient {
+
+	private static final String METADATA_FILE_NAME = "maven-metadata.xml";
+	private static final String STATE_FILE_SUFFIX = ".properties";
+
+	private static final String STATE_ETAG = "etag";
+	private static final String STATE_LAST_MODIFIED = "lastModified";
+	private static final String STATE_VERSIONS = "versions";
+
+	private static final int CONNECT_TIMEOUT = 10000;
+	private static final int READ_TIMEOUT = 30000;
+
+	private final Path stateDir;
+
+	/**
+	 * Constructs a new {@linkplain MavenMetadataClient} instance.
+	 *
+	 * @param stateDir the directory to store the conditional request state in.
+	 */
+	public MavenMetadataClient(Path stateDir) {
+		this.stateDir = stateDir;
+	}
+
+	/**
+	 * Gets the URI of an artifact's {@code maven-metadata.xml} file.
+	 *
+	 * @param repository the URI of the Maven repository to use.
+	 * @param group the group of the artifact.
+	 * @param name the name of the artifact.
+	 * @return the URI of the artifact's {@code maven-metadata.xml} file.
+	 */
+	public static URI getMetadataUri(URI repository, String group, String name) {
+		String repositoryString = repository.toString();
+		StringBuilder metadataUri = new StringBuilder(repositoryString);
+
+		if (!repositoryString.endsWith("/")) {
+			metadataUri.append('/');
+		}
+		metadataUri.append(group.replace('.', '/')).append('/').append(name).append('/').append(METADATA_FILE_NAME);
+		return URI.create(metadataUri.toString());
+	}
+
+	/**
+	 * Gets the value of a {@code Basic} {@code Authorization} request header.
+	 *
+	 * @param username the username to authenticate with.
+	 * @param password the password to authenticate with.
+	 * @return the value of the {@code Authorization} request header.
+	 */
+	public static String getBasicAuthorization(String username, String password) {
+		String userPass = username + ":" + password;
+
+		return "Basic " + Base64.getEncoder().encodeToString(userPass.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Fetches the metadata of an artifact.
+	 *
+	 * @param repository the URI of the Maven repository to fetch the metadata from.
+	 * @param group the group of the artifact.
+	 * @param name the name of the artifact.
+	 * @return the fetched metadata.
+	 * @throws IOException if an I/O error occurs while fetching the metadata.
+	 */
+	public Metadata fetch(URI repository, String group, String name) throws IOException {
+		return fetch(new Repository(repository), group, name);
+	}
+
+	/**
+	 * Fetches the metadata of an artifact.
+	 *
+	 * @param repository the Maven repository to fetch the metadata from.
+	 * @param group the group of the artifact.
+	 * @param name the name of the artifact.
+	 * @return the fetched metadata.
+	 * @throws IOException if an I/O error occurs while fetching the metadata.
+	 */
+	public Metadata fetch(Repository repository, String group, String name) throws IOException {
+		URI metadataUri = getMetadataUri(repository.getUri(), group, name);
+
+		return ("file".equals(metadataUri.getScheme()) ? fetchFile(metadataUri)
+				: fetchUrl(metadataUri, repository.getRequestHeaders()));
+	}
+
+	private Metadata fetchFile(URI metadataUri) throws IOException {
+		Metadata metadata;
+
+		try (InputStream metadataStream = Files.newInputStream(Paths.get(metadataUri))) {
+			metadata = new Metadata(true, false, parseVersions(metadataStream));
+		} catch (@SuppressWarnings("unused") NoSuchFileException e) {
+			metadata = new Metadata(false, false, Collections.emptyList());
+		}
+		return metadata;
+	}
+
+	private Metadata fetchUrl(URI metadataUri, Map<String, String> requestHeaders) throws IOException {
+		Path stateFile = this.stateDir.resolve(getStateKey(metadataUri) + STATE_FILE_SUFFIX);
+		Metadata metadata = fetchUrl(metadataUri, requestHeaders, stateFile, loadState(stateFile));
+
+		if (metadata == null) {
+			// Not modified, but the stored versions are gone (e.g. truncated state); drop the state and re-fetch
+			Files.deleteIfExists(stateFile);
+			metadata = fetchUrl(metadataUri, requestHeaders, stateFile, new Properties());
+			if (metadata == null) {
+				throw new IOException("Unexpected response " + HttpURLConnection.HTTP_NOT_MODIFIED
+						+ " while fetching " + metadataUri);
+			}
+		}
+		return metadata;
+	}
+
+	@Nullable
+	private Metadata fetchUrl(URI metadataUri, Map<String, String> requestHeaders, Path stateFile, Properties state)
+			throws IOException {
+		URLConnection connection = metadataUri.toURL().openConnection();
+
+		connection.setConnectTimeout(CONNECT_TIMEOUT);
+		connection.setReadTimeout(READ_TIMEOUT);
+		connection.setUseCaches(false);
+		requestHeaders.forEach(connection::setRequestProperty);
+
+		String etag = state.getProperty(STATE_ETAG);
+		String lastModified = state.getProperty(STATE_LAST_MODIFIED);
+
+		if (etag != null) {
+			connection.setRequestProperty("If-None-Match", etag);
+		}
+		if (lastModified != null) {
+			connection.setRequestProperty("If-Modified-Since", lastModified);
+		}
+
+		Metadata metadata;
+
+		try {
+			int responseCode = (connection instanceof HttpURLConnection
+					? ((HttpURLConnection) connection).getResponseCode()
+					: HttpURLConnection.HTTP_OK);
+
+			if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				String versions = state.getProperty(STATE_VERSIONS);
+
+				metadata = (versions != null ? new Metadata(true, true, splitVersions(versions)) : null);
+			} else if (responseCode == HttpURLConnection.HTTP_OK) {
+				List<String> versions;
+
+				try (InputStream metadataStream = connection.getInputStream()) {
+					versions = parseVersions(metadataStream);
+				}
+				saveState(stateFile, connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"),
+						versions);
+				metadata = new Metadata(true, false, versions);
+			} else if (responseCode == HttpURLConnection.HTTP_NOT_FOUND
+					|| responseCode == HttpURLConnection.HTTP_GONE) {
+				metadata = new Metadata(false, false, Collections.emptyList());
+			} else {
+				throw new IOException("Unexpected response " + responseCode + " while fetching " + metadataUri);
+			}
+		} catch (@SuppressWarnings("unused") FileNotFoundException e) {
+			metadata = new Metadata(false, false, Collections.emptyList());
+		} finally {
+			if (connection instanceof HttpURLConnection) {
+				((HttpURLConnection) connection).disconnect();
+			}
+		}
+		return metadata;
+	}
+
+	private static List<String> parseVersions(InputStream metadataStream) throws IOException {
+		XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+		xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+		List<String> versions = new ArrayList<>();
+
+		try {
+			XMLStreamReader xmlReader = xmlInputFactory.createXMLStreamReader(metadataStream);
+
+			try {
+				boolean inVersions = false;
+
+				while (xmlReader.hasNext()) {
+					int event = xmlReader.next();
+
+					if (event == XMLStreamConstants.START_ELEMENT) {
+						String elementName = xmlReader.getLocalName();
+
+						if ("versions".equals(elementName)) {
+							inVersions = true;
+						} else if (inVersions && "version".equals(elementName)) {
+							String version = xmlReader.getElementText().trim();
+
+							if (version.length() > 0) {
+								versions.add(version);
+							}
+						}
+					} else if (event == XMLStreamConstants.END_ELEMENT && "versions".equals(xmlReader.getLocalName())) {
+						inVersions = false;
+					}
+				}
+			} finally {
+				xmlReader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new IOException("Failed to parse Maven metadata", e);
+		}
+		return versions;
+	}
+
+	private static Properties loadState(Path stateFile) {
+		Properties state = new Properties();
+
+		try (InputStream stateStream = Files.newInputStream(stateFile)) {
+			state.load(stateStream);
+		} catch (@SuppressWarnings("unused") IOException e) {
+			// Missing or unreadable state; fetch unconditionally
+			state.clear();
+		}
+		return state;
+	}
+
+	private void saveState(Path stateFile, @Nullable String etag, @Nullable String lastModified,
+			List<String> versions) throws IOException {
+		if (etag != null || lastModified != null) {
+			Properties state = new Properties();
+
+			if (etag != null) {
+				state.setProperty(STATE_ETAG, etag);
+			}
+			if (lastModified != null) {
+				state.setProperty(STATE_LAST_MODIFIED, lastModified);
+			}
+			state.setProperty(STATE_VERSIONS, String.join(",", versions));
+			Files.createDirectories(this.stateDir);
+
+			Path tmpStateFile = Files.createTempFile(this.stateDir, stateFile.getFileName().toString(), ".tmp");
+
+			try {
+				try (OutputStream stateStream = Files.newOutputStream(tmpStateFile)) {
+					state.store(stateStream, null);
+				}
+				try {
+					Files.move(tmpStateFile, stateFile, StandardCopyOption.ATOMIC_MOVE,
+							StandardCopyOption.REPLACE_EXISTING);
+				} catch (@SuppressWarnings("unused") AtomicMoveNotSupportedException e) {
+					Files.move(tmpStateFile, stateFile, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(tmpStateFile);
+			}
+		}
+	}
+
+	private static List<String> splitVersions(String versionsString) {
+		return (versionsString.length() > 0 ? Arrays.asList(versionsString.split(",")) : Collections.emptyList());
+	}
+
+	private static String getStateKey(URI metadataUri) {
+		StringBuilder key = new StringBuilder();
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+			for (byte digestByte : digest.digest(metadataUri.toString().getBytes(StandardCharsets.UTF_8))) {
+				key.append(String.format("%02x", digestByte & 0xff));
+			}
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Missing standard digest algorithm", e);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * A Maven repository to fetch metadata from.
+	 * <p>
+	 * Besides the repository's URI it defines the additional request headers (e.g. {@code Authorization}) to send
+	 * while fetching metadata from a {@code http(s)} repository.
+	 */
+	public static final class Repository {
+
+		private final URI uri;
+		private final Map<String, String> requestHeaders;
+
+		/**
+		 * Constructs a new {@linkplain Repository} instance.
+		 *
+		 * @param uri the URI of the repository.
+		 */
+		public Repository(URI uri) {
+			this(uri, Collections.emptyMap());
+		}
+
+		/**
+		 * Constructs a new {@linkplain Repository} instance.
+		 *
+		 * @param uri the URI of the repository.
+		 * @param requestHeaders the additional request headers to send.
+		 */
+		public Repository(URI uri, Map<String, String> requestHeaders) {
+			this.uri = uri;
+			this.requestHeaders = Collections.unmodifiableMap(requestHeaders);
+		}
+
+		/**
+		 * Gets the URI of this repository.
+		 *
+		 * @return the URI of this repository.
+		 */
+		public URI getUri() {
+			return this.uri;
+		}
+
+		/**
+		 * Gets the additional request headers to send.
+		 *
+		 * @return the additional request headers to send.
+		 */
+		public Map<String, String> getRequestHeaders() {
+			return this.requestHeaders;
+		}
+
+		@Override
+		public String toString() {
+			// Never expose the request headers as they may contain secrets
+			return this.uri.toString();
+		}
+
+	}
+
+	/**
+	 * The metadata of an artifact as fetched by {@linkplain MavenMetadataClient#fetch(Repository, String, String)}.
+	 */
+	public static final class Metadata {
+
+		private final boolean found;
+		private final boolean notModified;
+		private final List<String> versions;
+
+		Metadata(boolean found, boolean notModified, List<String> versions) {
+			this.found = found;
+			this.notModified = notModified;
+			this.versions = Collections.unmodifiableList(versions);
+		}
+
+		/**
+		 * Checks whether the metadata file exists in the repository.
+		 *
+		 * @return {@code true} if the metadata file exists in the repository.
+		 */
+		public boolean isFound() {
+			return this.found;
+		}
+
+		/**
+		 * Checks whether the metadata has not been modified since the last fetch (and the versions have been taken
+		 * from the stored state).
+		 *
+		 * @return {@code true} if the metadata has not been modified since the last fetch.
+		 */
+		public boolean isNotModified() {
+			return this.notModified;
+		}
+
+		/**
+		 * Gets the available versions.
+		 *
+		 * @return the available versions (in the order defined by the metadata file).
+		 */
+		public List<String> getVersions() {
+			return this.versions;
+		}
+
+	}
+
+}
@@ -23,6 +23,11 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.Objects;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -61,6 +66,44 @@ public class OutputWriter extends Writer {
 		this.lineSeparator = lineSeparator.toCharArray();
 	}
 
+	/**
+	 * Updates a file with the given content.
+	 * <p>
+	 * The file is only written if its current content differs from the given one, hence the modification time of an
+	 * unchanged file is retained. A changed file is replaced atomically (if supported by the file system).
+	 *
+	 * @param file the {@linkplain Path} of the file to update.
+	 * @param content the content to write.
+	 * @return {@code true} if the file has been written.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public static boolean updateFile(Path file, byte[] content) throws IOException {
+		boolean changed = !Files.isRegularFile(file) || Files.size(file) != content.length
+				|| !Arrays.equals(Files.readAllBytes(file), content);
+
+		if (changed) {
+			Path absoluteFile = file.toAbsolutePath();
+			Path fileDir = Objects.requireNonNull(absoluteFile.getParent());
+
+			Files.createDirectories(fileDir);
+
+			Path tmpFile = Files.createTempFile(fileDir, absoluteFile.getFileName().toString(), ".tmp");
+
+			try {
+				Files.write(tmpFile, content);
+				try {
+					Files.move(tmpFile, absoluteFile, StandardCopyOption.ATOMIC_MOVE,
+							StandardCopyOption.REPLACE_EXISTING);
+				} catch (@SuppressWarnings("unused") AtomicMoveNotSupportedException e) {
+					Files.move(tmpFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(tmpFile);
+			}
+		}
+		return changed;
+	}
+
 	@Override
 	public void write(char @Nullable [] cbuf, int off, int len) throws IOException {
 		Objects.requireNonNull(cbuf);
@@ -21,6 +21,7 @@ import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.plugins.UnknownPluginException;
+import org.gradle.api.tasks.TaskProvider;
 
 import de.carne.gradle.plugin.java.JavaToolsPlugin;
 
@@ -63,6 +64,22 @@ public final class Plugins {
 				.forEach(task -> task.dependsOn(dependency));
 	}
 
+	/**
+	 * Adds a lazily registered task dependency to a specific type of tasks.
+	 * <p>
+	 * In contrast to {@linkplain #setTasksDependsOn(Project, Class, Task)} the dependency is added lazily; neither
+	 * the matching tasks nor the dependency are created by this call and matching tasks registered later on receive
+	 * the dependency as well.
+	 *
+	 * @param project the {@linkplain Project} to add the dependency for.
+	 * @param taskType the {@linkplain Task} type to add the dependency to.
+	 * @param dependency the {@linkplain TaskProvider} to add as a dependency.
+	 */
+	public static void setTasksDependsOn(Project project, Class<? extends Task> taskType,
+			TaskProvider<? extends Task> dependency) {
+		project.getTasks().withType(taskType).configureEach(task -> task.dependsOn(dependency));
+	}
+
 	/**
 	 * Adds a task dependency to a named task.
 	 *
@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streaming reader for TOML documents (as used by Gradle's version catalog files).
+ * <p>
+ * The document is read in a single pass without building any document model. Every value is reported to a
+ * {@linkplain Handler} together with its full key (the table path followed by the key path). Inline tables are
+ * flattened into their enclosing key and array elements are reported one by one using the array's key. String values
+ * are reported unquoted and unescaped; all other values (numbers, booleans, dates) are reported as written.
+ */
+public class TomlReader {
+
+	/**
+	 * Callback interface receiving the values read.
+	 */
+	@FunctionalInterface
+	public interface Handler {
+
+		/**
+		 * Called for every value read.
+		 *
+		 * @param key the full key of the value.
+		 * @param value the value.
+		 * @throws IOException if the value cannot be processed.
+		 */
+		void value(List<String> key, String value) throws IOException;
+
+	}
+
+	private static final int EOF = -1;
+	private static final int NONE = -2;
+
+	private final Reader reader;
+	private int lookahead = NONE;
+	private int line = 1;
+
+	/**
+	 * Constructs a new {@linkplain TomlReader} instance.
+	 *
+	 * @param reader the {@linkplain Reader} to read the document from.
+	 */
+	public TomlReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Reads the document and reports all values to the given {@linkplain Handler}.
+	 *
+	 * @param handler the {@linkplain Handler} to report the values to.
+	 * @throws IOException if an I/O error occurs or the document is not a valid TOML document.
+	 */
+	public void read(Handler handler) throws IOException {
+		List<String> table = Collections.emptyList();
+
+		while (skipBlank() != EOF) {
+			if (peek() == '[') {
+				table = readTableHeader();
+			} else {
+				readKeyValue(table, handler);
+			}
+			skipEndOfLine();
+		}
+	}
+
+	private List<String> readTableHeader() throws IOException {
+		next();
+
+		boolean arrayTable = peek() == '[';
+
+		if (arrayTable) {
+			next();
+		}
+
+		List<String> table = readKey();
+
+		expect(']');
+		if (arrayTable) {
+			expect(']');
+		}
+		return table;
+	}
+
+	private void readKeyValue(List<String> table, Handler handler) throws IOException {
+		List<String> key = new ArrayList<>(table);
+
+		key.addAll(readKey());
+		skipWhitespace();
+		expect('=');
+		skipWhitespace();
+		readValue(key, handler);
+	}
+
+	private List<String> readKey() throws IOException {
+		List<String> key = new ArrayList<>();
+
+		do {
+			skipWhitespace();
+			key.add(readSimpleKey());
+		} while (skipWhitespace() == '.' && next() == '.');
+		return key;
+	}
+
+	private String readSimpleKey() throws IOException {
+		int c = peek();
+		String key;
+
+		if (c == '"' || c == '\'') {
+			key = readString();
+		} else {
+			StringBuilder bareKey = new StringBuilder();
+
+			while (isBareKeyChar(peek())) {
+				bareKey.append((char) next());
+			}
+			if (bareKey.length() == 0) {
+				throw syntaxError("Key expected");
+			}
+			key = bareKey.toString();
+		}
+		return key;
+	}
+
+	private void readValue(List<String> key, Handler handler) throws IOException {
+		int c = peek();
+
+		if (c == '"' || c == '\'') {
+			handler.value(key, readString());
+		} else if (c == '{') {
+			readInlineTable(key, handler);
+		} else if (c == '[') {
+			readArray(key, handler);
+		} else {
+			handler.value(key, readBareValue());
+		}
+	}
+
+	private void readInlineTable(List<String> key, Handler handler) throws IOException {
+		next();
+		if (skipWhitespace() == '}') {
+			next();
+		} else {
+			int c;
+
+			do {
+				List<String> valueKey = new ArrayList<>(key);
+
+				valueKey.addAll(readKey());
+				skipWhitespace();
+				expect('=');
+				skipWhitespace();
+				readValue(valueKey, handler);
+				skipWhitespace();
+				c = next();
+			} while (c == ',');
+			if (c != '}') {
+				throw syntaxError("'}' expected");
+			}
+		}
+	}
+
+	private void readArray(List<String> key, Handler handler) throws IOException {
+		next();
+
+		int c = ',';
+
+		while (c == ',' && skipBlank() != ']') {
+			readValue(key, handler);
+			skipBlank();
+			c = next();
+		}
+		if (c == ',') {
+			next();
+		} else if (c != ']') {
+			throw syntaxError("']' expected");
+		}
+	}
+
+	private String readBareValue() throws IOException {
+		StringBuilder value = new StringBuilder();
+
+		readBareToken(value);
+		// Date-times may use a space to separate the date and the time part
+		if (value.length() == 10 && value.charAt(4) == '-' && peek() == ' ') {
+			next();
+			if (Character.isDigit(peek())) {
+				value.append(' ');
+				readBareToken(value);
+			}
+		}
+		if (value.length() == 0) {
+			throw syntaxError("Value expected");
+		}
+		return value.toString();
+	}
+
+	private void readBareToken(StringBuilder value) throws IOException {
+		int c;
+
+		while ((c = peek()) != EOF && c != ' ' && c != '\t' && c != ',' && c != ']' && c != '}' && c != '#'
+				&& c != '\r' && c != '\n') {
+			value.append((char) next());
+		}
+	}
+
+	private String readString() throws IOException {
+		int quote = next();
+		String string;
+
+		if (peek() != quote) {
+			string = readSingleLineString(quote);
+		} else {
+			next();
+			if (peek() == quote) {
+				next();
+				string = readMultiLineString(quote);
+			} else {
+				string = "";
+			}
+		}
+		return string;
+	}
+
+	private String readSingleLineString(int quote) throws IOException {
+		StringBuilder string = new StringBuilder();
+		int c;
+
+		while ((c = next()) != quote) {
+			if (c == EOF || c == '\n') {
+				throw syntaxError("Unterminated string");
+			}
+			if (c == '\\' && quote == '"') {
+				readEscape(string);
+			} else {
+				string.append((char) c);
+			}
+		}
+		return string.toString();
+	}
+
+	private String readMultiLineString(int quote) throws IOException {
+		StringBuilder string = new StringBuilder();
+
+		// A newline immediately following the opening delimiter is trimmed
+		if (peek() == '\r') {
+			next();
+		}
+		if (peek() == '\n') {
+			next();
+		}
+
+		int quoteCount = 0;
+
+		while (quoteCount < 3) {
+			int c = next();
+
+			if (c == EOF) {
+				throw syntaxError("Unterminated string");
+			}
+			if (c == quote) {
+				quoteCount++;
+			} else {
+				appendQuotes(string, quote, quoteCount);
+				quoteCount = 0;
+				if (c == '\\' && quote == '"') {
+					readMultiLineEscape(string);
+				} else {
+					string.append((char) c);
+				}
+			}
+		}
+		// Up to two quotes are allowed right before the closing delimiter
+		while (peek() == quote && quoteCount < 5) {
+			next();
+			quoteCount++;
+		}
+		appendQuotes(string, quote, quoteCount - 3);
+		return string.toString();
+	}
+
+	private static void appendQuotes(StringBuilder string, int quote, int count) {
+		for (int quoteIndex = 0; quoteIndex < count; quoteIndex++) {
+			string.append((char) quote);
+		}
+	}
+
+	private void readMultiLineEscape(StringBuilder string) throws IOException {
+		int c = peek();
+
+		if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+			// Line ending backslash; trim all whitespace up to the next non-whitespace character
+			while ((c = peek()) == ' ' || c == '\t' || c == '\r' || c == '\n') {
+				next();
+			}
+		} else {
+			readEscape(string);
+		}
+	}
+
+	private void readEscape(StringBuilder string) throws IOException {
+		int c = next();
+
+		switch (c) {
+		case 'b':
+			string.append('\b');
+			break;
+		case 't':
+			string.append('\t');
+			break;
+		case 'n':
+			string.append('\n');
+			break;
+		case 'f':
+			string.append('\f');
+			break;
+		case 'r':
+			string.append('\r');
+			break;
+		case '"':
+			string.append('"');
+			break;
+		case '\\':
+			string.append('\\');
+			break;
+		case 'u':
+			string.appendCodePoint(readHex(4));
+			break;
+		case 'U':
+			string.appendCodePoint(readHex(8));
+			break;
+		default:
+			throw syntaxError("Invalid escape sequence");
+		}
+	}
+
+	private int readHex(int length) throws IOException {
+		int codePoint = 0;
+
+		for (int hexIndex = 0; hexIndex < length; hexIndex++) {
+			int digit = Character.digit(next(), 16);
+
+			if (digit < 0) {
+				throw syntaxError("Invalid unicode escape sequence");
+			}
+			codePoint = (codePoint << 4) | digit;
+		}
+		if (!Character.isValidCodePoint(codePoint)) {
+			throw syntaxError("Invalid unicode escape sequence");
+		}
+		return codePoint;
+	}
+
+	private int skipWhitespace() throws IOException {
+		int c;
+
+		while ((c = peek()) == ' ' || c == '\t') {
+			next();
+		}
+		return c;
+	}
+
+	private int skipBlank() throws IOException {
+		int c;
+
+		while ((c = skipWhitespace()) == '#' || c == '\r' || c == '\n') {
+			if (c == '#') {
+				skipComment();
+			} else {
+				next();
+			}
+		}
+		return c;
+	}
+
+	private void skipComment() throws IOException {
+		int c;
+
+		while ((c = peek()) != EOF && c != '\r' && c != '\n') {
+			next();
+		}
+	}
+
+	private void skipEndOfLine() throws IOException {
+		if (skipWhitespace() == '#') {
+			skipComment();
+		}
+
+		int c = next();
+
+		if (c == '\r') {
+			c = next();
+		}
+		if (c != EOF && c != '\n') {
+			throw syntaxError("End of line expected");
+		}
+	}
+
+	private void expect(char expected) throws IOException {
+		if (next() != expected) {
+			throw syntaxError("'" + expected + "' expected");
+		}
+	}
+
+	private int peek() throws IOException {
+		if (this.lookahead == NONE) {
+			this.lookahead = this.reader.read();
+		}
+		return this.lookahead;
+	}
+
+	private int next() throws IOException {
+		int c = peek();
+
+		this.lookahead = NONE;
+		if (c == '\n') {
+			this.line++;
+		}
+		return c;
+	}
+
+	private static boolean isBareKeyChar(int c) {
+		return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+	}
+
+	private IOException syntaxError(String message) {
+		return new IOException(message + " (line " + this.line + ")");
+	}
+
+}
@@ -16,22 +16,440 @@
  */
 package de.carne.gradle.plugin.java.test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.Nullable;
 import org.gradle.testkit.runner.BuildResult;
 import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import de.carne.gradle.plugin.java.task.CheckAllDependencyVersionsTask;
 import de.carne.gradle.plugin.java.task.CheckDependencyVersionsTask;
 
 /**
- * Test {@linkplain CheckDependencyVersionsTask} class.
+ * Test {@linkplain CheckDependencyVersionsTask} and {@linkplain CheckAllDependencyVersionsTask} classes.
  */
 class CheckDependencyVersionsTaskTest extends TestProjectRunner {
 
+	private static final int REPORT_LATEST_COLUMN = 6;
+	private static final int REPORT_OUTDATED_COLUMN = 7;
+	private static final int REPORT_STALE_COLUMN = 8;
+	private static final int REPORT_ACCEPTED_COLUMN = 9;
+
 	@Test
 	void testProjectCheckDependencyVersionsTask() {
 		BuildResult checkDependencyVersionsResult = run("-s", "-i", "checkDependencyVersions");
 
 		assertTaskOutcome(checkDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+
+		// Without the previous results (build directory) the latest versions are served from the shared cache
+		BuildResult cachedCheckDependencyVersionsResult = run("-s", "-i", "clean", "checkDependencyVersions");
+
+		assertTaskOutcome(cachedCheckDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+		assertOutputLineStart(cachedCheckDependencyVersionsResult,
+				"Using cached latest version for dependency commons-io:commons-io: ");
+		assertNoOutputLineStart(cachedCheckDependencyVersionsResult, "Checking latest version for dependency ");
+	}
+
+	@Test
+	void testMavenLookupCheckDependencyVersionsTask() throws IOException {
+		// Start without any cached version to force the metadata lookups
+		BuildResult checkDependencyVersionsResult = run("-s", "-i", "-PlookupEngine=maven", "-PemptyCache",
+				"-Preports", "clean", "checkDependencyVersions");
+
+		assertTaskOutcome(checkDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+		assertOutputLine(checkDependencyVersionsResult,
+				"Checking latest version for dependency commons-io:commons-io...");
+
+		List<String> reportRows = readCsvReport("checkDependencyVersions");
+		String[] reportRow = assertReportRow(reportRows,
+				"project,check-dependency-versions-test,implementation,commons-io,commons-io,2.6,");
+
+		Assertions.assertEquals("true", reportRow[REPORT_OUTDATED_COLUMN]);
+		Assertions.assertEquals("false", reportRow[REPORT_STALE_COLUMN]);
+		assertReportRow(reportRows,
+				"catalog,check-dependency-versions-test,libs.versions.toml,com.google.code.gson,gson,2.8.0,");
+
+		// The conditional request state proves the metadata files have been fetched directly
+		try (Stream<Path> metadataStateFiles = Files
+				.list(runner().getProjectDir().toPath().resolve("build/empty-cache/maven-metadata"))) {
+			Assertions.assertTrue(metadataStateFiles.findAny().isPresent());
+		}
+	}
+
+	@Test
+	void testMavenLookupFailingRepositoryCheckDependencyVersionsTask() throws IOException {
+		BuildResult checkDependencyVersionsResult = run("-s", "-i", "-PlookupEngine=maven", "-PfailingRepository",
+				"-PemptyCache", "-Preports", "clean", "checkDependencyVersions");
+
+		assertTaskOutcome(checkDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+		assertOutputLineStart(checkDependencyVersionsResult,
+				"Failed to fetch metadata for dependency commons-io:commons-io from repository http://127.0.0.1:1/");
+
+		// The versions found in the remaining repository may be outdated
+		String[] reportRow = assertReportRow(readCsvReport("checkDependencyVersions"),
+				"project,check-dependency-versions-test,implementation,commons-io,commons-io,2.6,");
+
+		Assertions.assertEquals("true", reportRow[REPORT_STALE_COLUMN]);
+
+		// Incomplete results are neither cached nor re-used
+		BuildResult rerunCheckDependencyVersionsResult = run("-s", "-i", "-PlookupEngine=maven",
+				"-PfailingRepository", "-PemptyCache", "-Preports", "checkDependencyVersions", "--rerun-tasks");
+
+		assertTaskOutcome(rerunCheckDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+		assertOutputLine(rerunCheckDependencyVersionsResult,
+				"Checking latest version for dependency commons-io:commons-io...");
+	}
+
+	@Test
+	void testReportsCheckDependencyVersionsTask() throws IOException {
+		BuildResult checkDependencyVersionsResult = run("-s", "-i", "-Preports", "checkDependencyVersions");
+
+		assertTaskOutcome(checkDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+
+		// Both reports contain the same rows
+		List<Map<String, Object>> jsonReportRows = readJsonReport("checkDependencyVersions");
+		List<String> csvReportRows = readCsvReport("checkDependencyVersions");
+
+		Assertions.assertEquals(csvReportRows.size() - 1, jsonReportRows.size());
+
+		Map<String, Object> jsonReportRow = assertJsonReportRow(jsonReportRows, "project",
+				"check-dependency-versions-test", "implementation", "commons-io", "commons-io", "2.6");
+		String[] csvReportRow = assertReportRow(csvReportRows,
+				"project,check-dependency-versions-test,implementation,commons-io,commons-io,2.6,");
+
+		Assertions.assertEquals(csvReportRow[REPORT_LATEST_COLUMN], jsonReportRow.get("latest"));
+		Assertions.assertEquals(Boolean.TRUE, jsonReportRow.get("outdated"));
+		Assertions.assertEquals(Boolean.FALSE, jsonReportRow.get("stale"));
+		Assertions.assertEquals(Boolean.FALSE, jsonReportRow.get("accepted"));
+		Assertions.assertTrue(jsonReportRow.get("latencyMillis") instanceof Number);
+
+		BuildResult upToDateCheckDependencyVersionsResult = run("-s", "-i", "-Preports", "checkDependencyVersions");
+
+		assertTaskOutcome(upToDateCheckDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.UP_TO_DATE);
+
+		// An empty (e.g. truncated) state does not prove anything
+		Files.write(runner().getProjectDir().toPath().resolve("build/checkDependencyVersions/state.properties"),
+				new byte[0]);
+
+		BuildResult emptyStateCheckDependencyVersionsResult = run("-s", "-i", "-Preports", "checkDependencyVersions");
+
+		assertTaskOutcome(emptyStateCheckDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+	}
+
+	@Test
+	void testStatisticsCheckDependencyVersionsTask() throws IOException {
+		// Start without any cached version to force the lookups
+		BuildResult checkDependencyVersionsResult = run("-s", "-i", "-PemptyCache", "clean",
+				"checkDependencyVersions");
+
+		assertTaskOutcome(checkDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+		assertOutputLine(checkDependencyVersionsResult, "Dependency lookup statistics:");
+
+		File statisticsFile = new File(runner().getProjectDir(),
+				"build/reports/dependency-versions/checkDependencyVersions-statistics.json");
+		Map<?, ?> statistics = (Map<?, ?>) Objects.requireNonNull(readJson(statisticsFile));
+		List<?> sources = (List<?>) Objects.requireNonNull(statistics.get("sources"));
+		long totalLookups = 0;
+		long totalCacheMisses = 0;
+
+		Assertions.assertFalse(sources.isEmpty());
+		for (Object source : sources) {
+			Map<?, ?> sourceStatistics = (Map<?, ?>) source;
+			Map<?, ?> latencies = (Map<?, ?>) Objects.requireNonNull(sourceStatistics.get("latencyMillis"));
+
+			totalLookups += getJsonLong(sourceStatistics, "lookups");
+			totalCacheMisses += getJsonLong(sourceStatistics, "cacheMisses");
+			Assertions.assertTrue(getJsonLong(latencies, "p50") <= getJsonLong(latencies, "p90"));
+			Assertions.assertTrue(getJsonLong(latencies, "p90") <= getJsonLong(latencies, "p99"));
+			Assertions.assertTrue(getJsonLong(latencies, "p99") <= getJsonLong(latencies, "max"));
+		}
+		Assertions.assertTrue(totalLookups > 0);
+		Assertions.assertTrue(totalCacheMisses > 0);
+	}
+
+	@Test
+	void testBaselineCheckDependencyVersionsTask() throws IOException {
+		// Root project and sub-project share the same baseline file
+		BuildResult updateBaselineResult = run("-s", "-i", "--parallel", "-Pbaseline", "checkDependencyVersions",
+				"--update-baseline");
+
+		assertTaskOutcome(updateBaselineResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+		assertTaskOutcome(updateBaselineResult, ":module:checkDependencyVersions", TaskOutcome.SUCCESS);
+
+		List<String> baselineLines = Files.readAllLines(
+				new File(runner().getProjectDir(), "build/dependency-versions.baseline").toPath(),
+				StandardCharsets.UTF_8);
+
+		assertBaselineEntry(baselineLines, "commons-io:commons-io=");
+		assertBaselineEntry(baselineLines, "com.google.code.gson:gson=");
+
+		BuildResult checkDependencyVersionsResult = run("-s", "-i", "-Pbaseline", "-Preports",
+				"checkDependencyVersions");
+
+		assertTaskOutcome(checkDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+		assertTaskOutcome(checkDependencyVersionsResult, ":module:checkDependencyVersions", TaskOutcome.SUCCESS);
+
+		String[] rootReportRow = assertReportRow(readCsvReport("checkDependencyVersions"),
+				"project,check-dependency-versions-test,implementation,commons-io,commons-io,2.6,");
+		String[] moduleReportRow = assertReportRow(readCsvReport("module", "checkDependencyVersions"),
+				"project,module,implementation,com.google.code.gson,gson,2.8.0,");
+
+		Assertions.assertEquals("true", rootReportRow[REPORT_ACCEPTED_COLUMN]);
+		Assertions.assertEquals("true", moduleReportRow[REPORT_ACCEPTED_COLUMN]);
+
+		// A manually added (hence expired) entry accepts an equivalent version string
+		Path baselineFile = runner().getProjectDir().toPath().resolve("build/dependency-versions.baseline");
+
+		Files.write(baselineFile, Collections.singletonList(
+				"commons-io:commons-io=" + rootReportRow[REPORT_LATEST_COLUMN] + ".0"), StandardCharsets.UTF_8);
+
+		BuildResult equivalentCheckDependencyVersionsResult = run("-s", "-i", "-Pbaseline", "-Preports",
+				"checkDependencyVersions", "--rerun-tasks");
+
+		assertTaskOutcome(equivalentCheckDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+
+		String[] equivalentReportRow = assertReportRow(readCsvReport("checkDependencyVersions"),
+				"project,check-dependency-versions-test,implementation,commons-io,commons-io,2.6,");
+
+		Assertions.assertEquals(rootReportRow[REPORT_LATEST_COLUMN], equivalentReportRow[REPORT_LATEST_COLUMN]);
+		Assertions.assertEquals("true", equivalentReportRow[REPORT_ACCEPTED_COLUMN]);
+	}
+
+	@Test
+	void testOfflineCheckDependencyVersionsTask() throws IOException {
+		// Make sure Gradle's module cache contains the latest versions
+		BuildResult onlineCheckDependencyVersionsResult = run("-s", "-i", "checkDependencyVersions");
+
+		assertTaskOutcome(onlineCheckDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+
+		// Without any previous result or cached version the module cache is the only source left
+		BuildResult checkDependencyVersionsResult = run("-s", "-i", "--offline", "-PemptyCache", "-Preports", "clean",
+				"checkDependencyVersions");
+
+		assertTaskOutcome(checkDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+
+		String offlineLine = assertOutputLineStart(checkDependencyVersionsResult,
+				"Using offline latest version for dependency commons-io:commons-io: ");
+
+		Assertions.assertTrue(offlineLine.contains(" (stale since "), offlineLine);
+
+		String mismatchLine = assertOutputLineStart(checkDependencyVersionsResult,
+				"      Dependency mismatch: commons-io:commons-io:2.6 -> commons-io:commons-io:");
+
+		Assertions.assertTrue(mismatchLine.contains(" (stale since "), mismatchLine);
+
+		String[] reportRow = assertReportRow(readCsvReport("checkDependencyVersions"),
+				"project,check-dependency-versions-test,implementation,commons-io,commons-io,2.6,");
+
+		Assertions.assertEquals("true", reportRow[REPORT_STALE_COLUMN]);
+
+		// Stale results leave an incomplete state behind which is never up-to-date
+		BuildResult rerunCheckDependencyVersionsResult = run("-s", "-i", "--offline", "-PemptyCache", "-Preports",
+				"checkDependencyVersions");
+
+		assertTaskOutcome(rerunCheckDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+	}
+
+	@Test
+	void testTransitiveCheckDependencyVersionsTask() throws IOException {
+		BuildResult checkDependencyVersionsResult = run("-s", "-i", "-Ptransitive", "-Preports",
+				"checkDependencyVersions");
+
+		assertTaskOutcome(checkDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+
+		List<String> reportRows = readCsvReport("checkDependencyVersions");
+
+		// Every configuration reaching a module reports it (the selected version may differ from the declared one)
+		assertReportRow(reportRows, "project,check-dependency-versions-test,compileClasspath,commons-io,commons-io,");
+		assertReportRow(reportRows, "project,check-dependency-versions-test,runtimeClasspath,commons-io,commons-io,");
+	}
+
+	@Test
+	void testTransitiveCheckAllDependencyVersionsTask() throws IOException {
+		BuildResult checkAllDependencyVersionsResult = run("-s", "-i", "-Ptransitive", "-Preports",
+				"checkAllDependencyVersions", ":module:checkDependencyVersions");
+
+		assertTaskOutcome(checkAllDependencyVersionsResult, ":checkAllDependencyVersions", TaskOutcome.SUCCESS);
+		assertTaskOutcome(checkAllDependencyVersionsResult, ":module:checkDependencyVersions", TaskOutcome.SUCCESS);
+
+		List<String> reportRows = readCsvReport("checkAllDependencyVersions");
+
+		// Only the root project's configurations are walked by the aggregate task
+		assertReportRow(reportRows,
+				"project,check-dependency-versions-test,compileClasspath,org.eclipse.jdt,org.eclipse.jdt.annotation,");
+		assertReportRow(reportRows, "project,module,implementation,com.google.code.gson,gson,");
+		assertNoReportRow(reportRows, "project,module,runtimeClasspath,");
+
+		// The sub-project's transitive dependencies are checked by its own task (re-using the shared subgraphs)
+		List<String> moduleReportRows = readCsvReport("module", "checkDependencyVersions");
+
+		assertReportRow(moduleReportRows,
+				"project,module,compileClasspath,org.eclipse.jdt,org.eclipse.jdt.annotation,");
+		assertReportRow(moduleReportRows, "project,module,runtimeClasspath,com.google.code.gson,gson,");
+	}
+
+	@Test
+	void testCheckAllDependencyVersionsTask() {
+		BuildResult checkAllDependencyVersionsResult = run("-s", "-i", "checkAllDependencyVersions");
+
+		assertTaskOutcome(checkAllDependencyVersionsResult, ":checkAllDependencyVersions", TaskOutcome.SUCCESS);
+	}
+
+	@Test
+	void testSubProjectRepositoriesCheckAllDependencyVersionsTask() throws IOException {
+		// The root project declares a different repository; hence the sub-project is the first one of its group
+		BuildResult checkAllDependencyVersionsResult = run("-s", "-i", "-ProotRepository", "-Preports",
+				"checkAllDependencyVersions");
+
+		assertTaskOutcome(checkAllDependencyVersionsResult, ":checkAllDependencyVersions", TaskOutcome.SUCCESS);
+		// The sub-project's repositories are looked up via their metadata (without any resolution)
+		assertNoOutputLineStart(checkAllDependencyVersionsResult, "Unable to resolve dependencies using repositories ");
+
+		List<String> reportRows = readCsvReport("checkAllDependencyVersions");
+
+		assertReportRow(reportRows,
+				"project,check-dependency-versions-test,implementation,de.carne,java-default,8.6.0,");
+		assertReportRow(reportRows, "project,module,implementation,com.google.code.gson,gson,2.8.0,");
+	}
+
+	@Test
+	void testSubProjectRepositoriesVersionCatalogCheckDependencyVersionsTask() throws IOException {
+		// Only the sub-project declares any repository; hence the catalog is looked up via its repositories
+		BuildResult checkDependencyVersionsResult = run("-s", "-i", "-PnoRootRepository", "-Preports",
+				"checkDependencyVersions");
+
+		assertTaskOutcome(checkDependencyVersionsResult, ":checkDependencyVersions", TaskOutcome.SUCCESS);
+		assertNoOutputLineStart(checkDependencyVersionsResult, "Unable to resolve dependencies using repositories ");
+
+		List<String> reportRows = readCsvReport("checkDependencyVersions");
+
+		assertReportRow(reportRows,
+				"catalog,check-dependency-versions-test,libs.versions.toml,com.google.code.gson,gson,2.8.0,");
+		assertReportRow(reportRows,
+				"catalog,check-dependency-versions-test,libs.versions.toml,org.apache.commons,commons-lang3,3.10,");
+	}
+
+	private List<String> readCsvReport(String taskName) throws IOException {
+		return readCsvReport(".", taskName);
+	}
+
+	private List<String> readCsvReport(String projectDir, String taskName) throws IOException {
+		File csvReportFile = new File(runner().getProjectDir(),
+				projectDir + "/build/reports/dependency-versions/" + taskName + ".csv");
+
+		return Files.readAllLines(csvReportFile.toPath(), StandardCharsets.UTF_8);
+	}
+
+	private List<Map<String, Object>> readJsonReport(String taskName) throws IOException {
+		File jsonReportFile = new File(runner().getProjectDir(),
+				"build/reports/dependency-versions/" + taskName + ".json");
+		List<Map<String, Object>> reportRows = new ArrayList<>();
+
+		for (Object reportRow : (List<?>) readJson(jsonReportFile)) {
+			Map<String, Object> reportRowMap = new HashMap<>();
+
+			((Map<?, ?>) reportRow).forEach((key, value) -> reportRowMap.put(key.toString(), value));
+			reportRows.add(reportRowMap);
+		}
+		return reportRows;
+	}
+
+	private static @Nullable Object readJson(File jsonFile) throws IOException {
+		try (JsonParser json = new JsonFactory().createParser(jsonFile)) {
+			return readJsonValue(json, json.nextToken());
+		}
+	}
+
+	private static @Nullable Object readJsonValue(JsonParser json, @Nullable JsonToken token) throws IOException {
+		Object value;
+
+		if (token == JsonToken.START_ARRAY) {
+			List<@Nullable Object> array = new ArrayList<>();
+			JsonToken elementToken;
+
+			while ((elementToken = json.nextToken()) != JsonToken.END_ARRAY) {
+				array.add(readJsonValue(json, elementToken));
+			}
+			value = array;
+		} else if (token == JsonToken.START_OBJECT) {
+			Map<String, @Nullable Object> object = new LinkedHashMap<>();
+
+			while (json.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = json.getCurrentName();
+
+				object.put(fieldName, readJsonValue(json, json.nextToken()));
+			}
+			value = object;
+		} else if (token == JsonToken.VALUE_STRING) {
+			value = json.getText();
+		} else if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+			value = json.getNumberValue();
+		} else if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+			value = Boolean.valueOf(json.getBooleanValue());
+		} else if (token == JsonToken.VALUE_NULL) {
+			value = null;
+		} else {
+			throw new IOException("Unexpected JSON token: " + token);
+		}
+		return value;
+	}
+
+	private static long getJsonLong(Map<?, ?> object, String fieldName) {
+		Object value = object.get(fieldName);
+
+		Assertions.assertTrue(value instanceof Number, "No number field: " + fieldName);
+		return ((Number) Objects.requireNonNull(value)).longValue();
+	}
+
+	private Map<String, Object> assertJsonReportRow(List<Map<String, Object>> reportRows, String... rowStart) {
+		Map<String, Object> reportRow = reportRows.stream()
+				.filter(row -> rowStart[0].equals(row.get("section")) && rowStart[1].equals(row.get("project"))
+						&& rowStart[2].equals(row.get("configuration")) && rowStart[3].equals(row.get("group"))
+						&& rowStart[4].equals(row.get("name")) && rowStart[5].equals(row.get("current")))
+				.findFirst().orElse(null);
+
+		Assertions.assertNotNull(reportRow, "No JSON report row: " + String.join(",", rowStart));
+		return Objects.requireNonNull(reportRow);
+	}
+
+	private String[] assertReportRow(List<String> reportRows, String rowStart) {
+		String reportRow = reportRows.stream().filter(row -> row.startsWith(rowStart)).findFirst().orElse(null);
+
+		Assertions.assertNotNull(reportRow, "No report row: " + rowStart);
+
+		// The test dependencies do not contain any CSV special characters
+		String[] reportColumns = reportRow.split(",", -1);
+
+		Assertions.assertFalse(reportColumns[REPORT_LATEST_COLUMN].isEmpty(), "No latest version: " + reportRow);
+		return reportColumns;
+	}
+
+	private void assertNoReportRow(List<String> reportRows, String rowStart) {
+		Assertions.assertTrue(reportRows.stream().noneMatch(row -> row.startsWith(rowStart)),
+				"Unexpected report row: " + rowStart);
+	}
+
+	private void assertBaselineEntry(List<String> baselineLines, String entryStart) {
+		Assertions.assertTrue(baselineLines.stream().anyMatch(line -> line.startsWith(entryStart)),
+				"No baseline entry: " + entryStart);
 	}
 
 }
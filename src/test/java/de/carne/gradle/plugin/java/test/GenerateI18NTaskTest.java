@@ -16,8 +16,18 @@
  */
 package de.carne.gradle.plugin.java.test;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
 import org.gradle.testkit.runner.BuildResult;
 import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import de.carne.gradle.plugin.java.task.GenerateI18NTask;
@@ -27,6 +37,8 @@ import de.carne.gradle.plugin.java.task.GenerateI18NTask;
  */
 class GenerateI18NTaskTest extends TestProjectRunner {
 
+	private static final String BUNDLE_PACKAGE_DIR = "de/carne/gradle/plugin/test";
+
 	@Test
 	void testGenerateI18NTask() {
 		BuildResult cleanAssembleResult = run("-s", "-i", "clean", "assemble");
@@ -40,4 +52,224 @@ class GenerateI18NTaskTest extends TestProjectRunner {
 		assertTaskOutcome(assembleResult, ":assemble", TaskOutcome.UP_TO_DATE);
 	}
 
+	@Test
+	void testIncrementalGenerateI18NTask() throws IOException {
+		Path projectDir = runner().getProjectDir().toPath();
+		Path bundleFile = projectDir.resolve("src/main/resources").resolve(BUNDLE_PACKAGE_DIR)
+				.resolve("IncrementalI18N.properties");
+		Path javaFile = projectDir.resolve("build/generated/main/java").resolve(BUNDLE_PACKAGE_DIR)
+				.resolve("IncrementalI18N.java");
+
+		Files.write(bundleFile, Arrays.asList("I18N_INCREMENTAL=Incremental"));
+		try {
+			BuildResult addedBundleResult = run("-s", "-i", "generateI18N");
+
+			assertTaskOutcome(addedBundleResult, ":generateI18N", TaskOutcome.SUCCESS);
+			Assertions.assertTrue(Files.exists(javaFile));
+		} finally {
+			Files.delete(bundleFile);
+		}
+
+		BuildResult removedBundleResult = run("-s", "-i", "generateI18N");
+
+		assertTaskOutcome(removedBundleResult, ":generateI18N", TaskOutcome.SUCCESS);
+		Assertions.assertFalse(Files.exists(javaFile));
+	}
+
+	@Test
+	void testIncrementalLocaleVariantGenerateI18NTask() throws IOException {
+		Path projectDir = runner().getProjectDir().toPath();
+		Path bundleDir = projectDir.resolve("src/main/resources").resolve(BUNDLE_PACKAGE_DIR);
+		Path baseBundleFile = bundleDir.resolve("VariantI18N.properties");
+		Path variantBundleFile = bundleDir.resolve("VariantI18N_de.properties");
+		Path genDir = projectDir.resolve("build/generated/main/java").resolve(BUNDLE_PACKAGE_DIR);
+
+		Files.write(variantBundleFile, Arrays.asList("I18N_VARIANT=Variante"));
+		try {
+			BuildResult variantOnlyResult = run("-s", "-i", "-PcompileBundles", "generateI18N");
+
+			// Without a base bundle the variant is a bundle of its own
+			assertTaskOutcome(variantOnlyResult, ":generateI18N", TaskOutcome.SUCCESS);
+			Assertions.assertTrue(Files.exists(genDir.resolve("VariantI18N_de.java")));
+			Assertions.assertTrue(Files.exists(genDir.resolve("VariantI18N_deBundle.java")));
+
+			Files.write(baseBundleFile, Arrays.asList("I18N_VARIANT=Variant"));
+
+			BuildResult addedBaseResult = run("-s", "-i", "-PcompileBundles", "generateI18N");
+
+			assertTaskOutcome(addedBaseResult, ":generateI18N", TaskOutcome.SUCCESS);
+			Assertions.assertTrue(Files.exists(genDir.resolve("VariantI18N.java")));
+			Assertions.assertTrue(Files.exists(genDir.resolve("VariantI18NBundle.java")));
+			Assertions.assertTrue(Files.exists(genDir.resolve("VariantI18NBundle_de.java")));
+			Assertions.assertFalse(Files.exists(genDir.resolve("VariantI18N_de.java")));
+			Assertions.assertFalse(Files.exists(genDir.resolve("VariantI18N_deBundle.java")));
+
+			Files.delete(baseBundleFile);
+
+			BuildResult removedBaseResult = run("-s", "-i", "-PcompileBundles", "generateI18N");
+
+			assertTaskOutcome(removedBaseResult, ":generateI18N", TaskOutcome.SUCCESS);
+			Assertions.assertFalse(Files.exists(genDir.resolve("VariantI18N.java")));
+			Assertions.assertFalse(Files.exists(genDir.resolve("VariantI18NBundle.java")));
+			Assertions.assertFalse(Files.exists(genDir.resolve("VariantI18NBundle_de.java")));
+			Assertions.assertTrue(Files.exists(genDir.resolve("VariantI18N_de.java")));
+			Assertions.assertTrue(Files.exists(genDir.resolve("VariantI18N_deBundle.java")));
+		} finally {
+			Files.deleteIfExists(baseBundleFile);
+			Files.delete(variantBundleFile);
+		}
+	}
+
+	@Test
+	void testStaleGenerateI18NTask() throws IOException {
+		Path genDir = runner().getProjectDir().toPath().resolve("build/generated/main/java")
+				.resolve(BUNDLE_PACKAGE_DIR);
+		Path staleJavaFile = genDir.resolve("StaleI18N.java");
+		Path foreignJavaFile = genDir.resolve("Foreign.java");
+		Path foreignFile = genDir.resolve("Foreign.txt");
+
+		Files.createDirectories(genDir);
+		Files.write(staleJavaFile,
+				Arrays.asList("/*", " * I18N resource strings (automatically generated - do not edit)", " */",
+						"package de.carne.gradle.plugin.test;", "public final class StaleI18N {}"));
+		Files.write(foreignJavaFile, Arrays.asList("package de.carne.gradle.plugin.test;", "class Foreign {}"));
+		Files.write(foreignFile, Arrays.asList("Foreign"));
+		try {
+			// A full (non-incremental) run removes the stale classes generated by us but keeps everything else
+			BuildResult rerunResult = run("-s", "-i", "--rerun-tasks", "generateI18N");
+
+			assertTaskOutcome(rerunResult, ":generateI18N", TaskOutcome.SUCCESS);
+			Assertions.assertFalse(Files.exists(staleJavaFile));
+			Assertions.assertTrue(Files.exists(foreignJavaFile));
+			Assertions.assertTrue(Files.exists(foreignFile));
+		} finally {
+			Files.deleteIfExists(foreignJavaFile);
+			Files.deleteIfExists(foreignFile);
+		}
+	}
+
+	@Test
+	void testGeneratedClassesGenerateI18NTask() {
+		BuildResult testMainResult = runTestMain();
+
+		assertCommonTestMainOutput(testMainResult);
+		// Only the variable arguments accessors without option fixedArityAccessors
+		assertOutputLine(testMainResult, "accessors: 1 1 1 1");
+		assertOutputLine(testMainResult, "fixed arity: false");
+	}
+
+	@Test
+	void testCacheFormatsGenerateI18NTask() {
+		BuildResult testMainResult = runTestMain("-PcacheFormats");
+
+		assertCommonTestMainOutput(testMainResult);
+		assertOutputLine(testMainResult, "cached format: true");
+		assertOutputLine(testMainResult, "cached arguments: Arguments C and D.");
+	}
+
+	@Test
+	void testLazyBundleGenerateI18NTask() {
+		BuildResult testMainResult = runTestMain("-PlazyBundle");
+
+		assertCommonTestMainOutput(testMainResult);
+		assertOutputLine(testMainResult, "lazy bundle: A simple test text.");
+	}
+
+	@Test
+	void testIndexedKeysGenerateI18NTask() {
+		BuildResult testMainResult = runTestMain("-PindexedKeys");
+
+		assertCommonTestMainOutput(testMainResult);
+		assertOutputLine(testMainResult, "indexed string: A simple test text.");
+		assertOutputLine(testMainResult, "indexed format: Arguments A and B.");
+	}
+
+	@Test
+	void testCompileBundlesGenerateI18NTask() {
+		Path projectDir = runner().getProjectDir().toPath();
+		Path compiledBundleFile = projectDir.resolve("build/generated/main/java").resolve(BUNDLE_PACKAGE_DIR)
+				.resolve("TestI18NBundle.java");
+		BuildResult testMainResult = runTestMain("-PcompileBundles");
+
+		assertCommonTestMainOutput(testMainResult);
+		// The compiled bundle is used instead of the properties file (also for the locale variants)
+		assertOutputLine(testMainResult, "compiled bundle: TestI18NBundle");
+		assertOutputLine(testMainResult, "compiled bundle name: true");
+		assertOutputLine(testMainResult, "compiled variant: TestI18NBundle_de Ein einfacher Testtext.");
+		Assertions.assertTrue(Files.exists(compiledBundleFile));
+
+		BuildResult defaultResult = run("-s", "-i", "generateI18N");
+
+		assertTaskOutcome(defaultResult, ":generateI18N", TaskOutcome.SUCCESS);
+		Assertions.assertFalse(Files.exists(compiledBundleFile));
+	}
+
+	@Test
+	void testFixedArityAccessorsGenerateI18NTask() {
+		BuildResult testMainResult = runTestMain("-PfixedArityAccessors");
+
+		assertCommonTestMainOutput(testMainResult);
+		assertFixedArityAccessorsOutput(testMainResult);
+	}
+
+	@Test
+	void testAllOptionsGenerateI18NTask() {
+		BuildResult testMainResult = runTestMain("-PcacheFormats", "-PlazyBundle", "-PindexedKeys",
+				"-PcompileBundles", "-PfixedArityAccessors");
+
+		assertCommonTestMainOutput(testMainResult);
+		assertOutputLine(testMainResult, "cached format: true");
+		assertOutputLine(testMainResult, "lazy bundle: A simple test text.");
+		assertOutputLine(testMainResult, "indexed string: A simple test text.");
+		assertOutputLine(testMainResult, "compiled bundle: TestI18NBundle");
+		assertOutputLine(testMainResult, "compiled bundle name: true");
+		assertFixedArityAccessorsOutput(testMainResult);
+	}
+
+	@Test
+	void testNonAsciiCompileBundlesGenerateI18NTask() throws IOException {
+		Path projectDir = runner().getProjectDir().toPath();
+		Path compiledBundleFile = projectDir.resolve("build/generated/main/java").resolve(BUNDLE_PACKAGE_DIR)
+				.resolve("TestI18NBundle.java");
+		BuildResult compileBundlesResult = run("-s", "-i", "-PcompileBundles", "generateI18N");
+
+		assertTaskOutcome(compileBundlesResult, ":generateI18N", TaskOutcome.SUCCESS);
+		// The UTF-8 encoded bundle string must be compiled exactly as returned by PropertyResourceBundle
+		Assertions.assertTrue(new String(Files.readAllBytes(compiledBundleFile), StandardCharsets.UTF_8)
+				.contains("{ \"I18N_NON_ASCII_TEXT\", \"Gr\\u00f6\\u00dfe\" }"));
+	}
+
+	private BuildResult runTestMain(@NonNull String... options) {
+		List<@NonNull String> arguments = new ArrayList<>();
+
+		arguments.add("-s");
+		arguments.add("-i");
+		arguments.addAll(Arrays.asList(options));
+		arguments.add("testMain");
+
+		// The test main compiles against the generated classes and calls them
+		BuildResult testMainResult = run(arguments.toArray(new @NonNull String[arguments.size()]));
+
+		assertTaskOutcome(testMainResult, ":testMain", TaskOutcome.SUCCESS);
+		return testMainResult;
+	}
+
+	private void assertCommonTestMainOutput(BuildResult testMainResult) {
+		assertOutputLine(testMainResult, "simple: A simple test text.");
+		assertOutputLine(testMainResult, "arguments: Arguments A and B.");
+		assertOutputLine(testMainResult, "quoted: It's quoted.");
+		assertOutputLine(testMainResult, "invalid: rejected");
+		assertOutputLine(testMainResult, "non-ascii: true");
+	}
+
+	private void assertFixedArityAccessorsOutput(BuildResult testMainResult) {
+		// No-argument and fixed arity accessors for the well-formed patterns (formatting the quoted one), only the
+		// generic accessor for the invalid pattern
+		assertOutputLine(testMainResult, "accessors: 2 2 2 1");
+		assertOutputLine(testMainResult, "fixed arity: true");
+		assertOutputLine(testMainResult, "fixed arity string: A simple test text.");
+		assertOutputLine(testMainResult, "fixed arity format: Arguments A and B.");
+		assertOutputLine(testMainResult, "fixed arity quoted: It's quoted.");
+	}
+
 }
@@ -22,8 +22,11 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.gradle.testkit.runner.BuildResult;
 import org.gradle.testkit.runner.BuildTask;
 import org.gradle.testkit.runner.GradleRunner;
@@ -58,20 +61,38 @@ abstract class TestProjectRunner {
 	}
 
 	protected void assertOutputLine(BuildResult buildResult, String line) {
-		boolean match = false;
+		Assertions.assertNotNull(findOutputLine(buildResult, line::equals), "No output line: " + line);
+	}
+
+	protected String assertOutputLineStart(BuildResult buildResult, String lineStart) {
+		String line = findOutputLine(buildResult, outputLine -> outputLine.startsWith(lineStart));
+
+		Assertions.assertNotNull(line, "No output line: " + lineStart + "...");
+		return Objects.requireNonNull(line);
+	}
+
+	protected void assertNoOutputLineStart(BuildResult buildResult, String lineStart) {
+		String line = findOutputLine(buildResult, outputLine -> outputLine.startsWith(lineStart));
+
+		Assertions.assertNull(line, "Unexpected output line: " + line);
+	}
+
+	@Nullable
+	private String findOutputLine(BuildResult buildResult, Predicate<String> predicate) {
+		String line = null;
 
 		try (BufferedReader outputLines = new BufferedReader(new StringReader(buildResult.getOutput()))) {
 			String outputLine;
 
-			while (!match && (outputLine = outputLines.readLine()) != null) {
-				if (outputLine.equals(line)) {
-					match = true;
+			while (line == null && (outputLine = outputLines.readLine()) != null) {
+				if (predicate.test(outputLine)) {
+					line = outputLine;
 				}
 			}
 		} catch (IOException e) {
 			Assertions.fail(e);
 		}
-		Assertions.assertTrue(match, "No output line: " + line);
+		return line;
 	}
 
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.gradle.plugin.java.task.Version;
+
+/**
+ * Test {@linkplain Version} class.
+ */
+class VersionTest {
+
+	@Test
+	void testNumericOrder() {
+		assertLess("1.9", "1.10");
+		assertLess("1.9.9", "1.10");
+		assertLess("1.0", "1.0.1");
+		assertLess("2", "10");
+	}
+
+	@Test
+	void testSuffixOrder() {
+		assertLess("2.1", "2.1a");
+		assertLess("2.1a", "2.1b");
+		assertLess("1.0.0-beta", "1.0.0-rc");
+		assertLess("1.0-RC1", "1.0-RC2");
+		// The numeric part takes precedence over the suffix
+		assertLess("1.0-RC2", "1.1");
+	}
+
+	@Test
+	void testQualifierOrder() {
+		assertLess("1.0.Beta", "1.0.Final");
+		assertLess("1.0.Final", "1.1.Final");
+	}
+
+	@Test
+	void testEqualsHashCode() {
+		assertEqual("1.2.3", "1.2.3");
+		assertEqual("1.01", "1.1");
+		assertEqual("1.0-RC1", "1.00-RC1");
+		// Missing tokens are equivalent to 0
+		assertEqual("1.0", "1.0.0");
+		assertEqual("1", "1.0.0.0");
+		assertLess("1.0", "1.0-RC1");
+		assertLess("1.0.0", "1.0.Final");
+		Assertions.assertNotEquals(Version.valueOf("1.0-RC1"), Version.valueOf("1.0-RC2"));
+		Assertions.assertSame(Version.valueOf("1.2.3"), Version.valueOf("1.2.3"));
+		Assertions.assertEquals("1.01", Version.valueOf("1.01").toString());
+	}
+
+	private static void assertLess(String lower, String higher) {
+		Version lowerVersion = Version.valueOf(lower);
+		Version higherVersion = Version.valueOf(higher);
+
+		Assertions.assertTrue(lowerVersion.compareTo(higherVersion) < 0, lower + " < " + higher);
+		Assertions.assertTrue(higherVersion.compareTo(lowerVersion) > 0, higher + " > " + lower);
+		Assertions.assertNotEquals(lowerVersion, higherVersion);
+	}
+
+	private static void assertEqual(String version1, String version2) {
+		Version version1Version = Version.valueOf(version1);
+		Version version2Version = Version.valueOf(version2);
+
+		Assertions.assertEquals(0, version1Version.compareTo(version2Version));
+		Assertions.assertEquals(version1Version, version2Version);
+		Assertions.assertEquals(version1Version.hashCode(), version2Version.hashCode());
+	}
+
+}
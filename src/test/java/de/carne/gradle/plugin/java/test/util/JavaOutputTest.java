@@ -38,4 +38,10 @@ class JavaOutputTest {
 				JavaOutput.encodeBundleString("It is ok to have special chars like /* @äöü */\r\nin a bundle string."));
 	}
 
+	@Test
+	void testEncodeJavaString() {
+		Assertions.assertEquals("Quotes \\\"\\\\\\\" \\u00e4\\u00f6\\u00fc\\u20ac\\t\\r\\nin a Java string.",
+				JavaOutput.encodeJavaString("Quotes \"\\\" äöü€\t\r\nin a Java string."));
+	}
+
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.test.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.carne.gradle.plugin.java.util.MavenMetadataClient;
+
+/**
+ * Test {@linkplain MavenMetadataClient} class.
+ */
+class MavenMetadataClientTest {
+
+	private static final String TEST_GROUP = "de.carne.test";
+	private static final String TEST_NAME = "test-artifact";
+	private static final String TEST_ETAG = "\"test-etag\"";
+
+	private static final String TEST_METADATA = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + "<metadata>\n"
+			+ " <groupId>de.carne.test</groupId>\n" + " <artifactId>test-artifact</artifactId>\n" + " <versioning>\n"
+			+ "  <latest>1.10.0</latest>\n" + "  <release>1.10.0</release>\n" + "  <versions>\n"
+			+ "   <version>1.0.0</version>\n" + "   <version>1.9.0</version>\n" + "   <version>1.10.0</version>\n"
+			+ "  </versions>\n" + " </versioning>\n" + "</metadata>\n";
+
+	@Test
+	void testGetMetadataUri() {
+		Assertions.assertEquals(URI.create("https://repo.test/maven2/de/carne/test/test-artifact/maven-metadata.xml"),
+				MavenMetadataClient.getMetadataUri(URI.create("https://repo.test/maven2"), TEST_GROUP, TEST_NAME));
+		Assertions.assertEquals(URI.create("https://repo.test/maven2/de/carne/test/test-artifact/maven-metadata.xml"),
+				MavenMetadataClient.getMetadataUri(URI.create("https://repo.test/maven2/"), TEST_GROUP, TEST_NAME));
+	}
+
+	@Test
+	void testFileRepository(@TempDir Path tempDir) throws IOException {
+		Path repositoryDir = tempDir.resolve("repository");
+		Path artifactDir = repositoryDir.resolve("de/carne/test").resolve(TEST_NAME);
+
+		Files.createDirectories(artifactDir);
+		Files.write(artifactDir.resolve("maven-metadata.xml"), TEST_METADATA.getBytes(StandardCharsets.UTF_8));
+
+		MavenMetadataClient client = new MavenMetadataClient(tempDir.resolve("state"));
+		MavenMetadataClient.Metadata metadata = client.fetch(repositoryDir.toUri(), TEST_GROUP, TEST_NAME);
+
+		Assertions.assertTrue(metadata.isFound());
+		Assertions.assertFalse(metadata.isNotModified());
+		Assertions.assertEquals(Arrays.asList("1.0.0", "1.9.0", "1.10.0"), metadata.getVersions());
+
+		MavenMetadataClient.Metadata missingMetadata = client.fetch(repositoryDir.toUri(), TEST_GROUP, "missing");
+
+		Assertions.assertFalse(missingMetadata.isFound());
+		Assertions.assertTrue(missingMetadata.getVersions().isEmpty());
+	}
+
+	@Test
+	void testHttpRepository(@TempDir Path tempDir) throws IOException {
+		AtomicInteger fullResponses = new AtomicInteger();
+		AtomicInteger notModifiedResponses = new AtomicInteger();
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+
+		server.createContext("/maven2/", exchange -> {
+			try {
+				handleMetadataRequest(exchange, fullResponses, notModifiedResponses);
+			} finally {
+				exchange.close();
+			}
+		});
+		server.start();
+		try {
+			URI repository = URI.create("http://" + server.getAddress().getHostString() + ":"
+					+ server.getAddress().getPort() + "/maven2/");
+			MavenMetadataClient client = new MavenMetadataClient(tempDir.resolve("state"));
+			MavenMetadataClient.Metadata metadata1 = client.fetch(repository, TEST_GROUP, TEST_NAME);
+
+			Assertions.assertTrue(metadata1.isFound());
+			Assertions.assertFalse(metadata1.isNotModified());
+			Assertions.assertEquals(Arrays.asList("1.0.0", "1.9.0", "1.10.0"), metadata1.getVersions());
+
+			MavenMetadataClient.Metadata metadata2 = new MavenMetadataClient(tempDir.resolve("state"))
+					.fetch(repository, TEST_GROUP, TEST_NAME);
+
+			Assertions.assertTrue(metadata2.isFound());
+			Assertions.assertTrue(metadata2.isNotModified());
+			Assertions.assertEquals(metadata1.getVersions(), metadata2.getVersions());
+			Assertions.assertEquals(1, fullResponses.get());
+			Assertions.assertEquals(1, notModifiedResponses.get());
+
+			MavenMetadataClient.Metadata missingMetadata = client.fetch(repository, TEST_GROUP, "missing");
+
+			Assertions.assertFalse(missingMetadata.isFound());
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	void testTruncatedStateHttpRepository(@TempDir Path tempDir) throws IOException {
+		AtomicInteger fullResponses = new AtomicInteger();
+		AtomicInteger notModifiedResponses = new AtomicInteger();
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+
+		server.createContext("/maven2/", exchange -> {
+			try {
+				handleMetadataRequest(exchange, fullResponses, notModifiedResponses);
+			} finally {
+				exchange.close();
+			}
+		});
+		server.start();
+		try {
+			URI repository = URI.create("http://" + server.getAddress().getHostString() + ":"
+					+ server.getAddress().getPort() + "/maven2/");
+			Path stateDir = tempDir.resolve("state");
+			MavenMetadataClient client = new MavenMetadataClient(stateDir);
+
+			client.fetch(repository, TEST_GROUP, TEST_NAME);
+
+			// Keep the ETag but drop the stored versions
+			try (Stream<Path> stateFiles = Files.list(stateDir)) {
+				for (Path stateFile : stateFiles.collect(Collectors.toList())) {
+					Files.write(stateFile, Collections.singletonList("etag=" + TEST_ETAG), StandardCharsets.ISO_8859_1);
+				}
+			}
+
+			MavenMetadataClient.Metadata metadata = client.fetch(repository, TEST_GROUP, TEST_NAME);
+
+			Assertions.assertTrue(metadata.isFound());
+			Assertions.assertFalse(metadata.isNotModified());
+			Assertions.assertEquals(Arrays.asList("1.0.0", "1.9.0", "1.10.0"), metadata.getVersions());
+			Assertions.assertEquals(2, fullResponses.get());
+			Assertions.assertEquals(1, notModifiedResponses.get());
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	void testAuthenticatedHttpRepository(@TempDir Path tempDir) throws IOException {
+		String authorization = MavenMetadataClient.getBasicAuthorization("user", "secret");
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+
+		server.createContext("/maven2/", exchange -> {
+			try {
+				if (authorization.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+					handleMetadataRequest(exchange, new AtomicInteger(), new AtomicInteger());
+				} else {
+					exchange.sendResponseHeaders(401, -1);
+				}
+			} finally {
+				exchange.close();
+			}
+		});
+		server.start();
+		try {
+			URI repositoryUri = URI.create("http://" + server.getAddress().getHostString() + ":"
+					+ server.getAddress().getPort() + "/maven2/");
+			MavenMetadataClient client = new MavenMetadataClient(tempDir.resolve("state"));
+			MavenMetadataClient.Repository repository = new MavenMetadataClient.Repository(repositoryUri,
+					Collections.singletonMap("Authorization", authorization));
+
+			Assertions.assertEquals("Basic dXNlcjpzZWNyZXQ=", authorization);
+			Assertions.assertEquals(repositoryUri.toString(), repository.toString());
+
+			MavenMetadataClient.Metadata metadata = client.fetch(repository, TEST_GROUP, TEST_NAME);
+
+			Assertions.assertTrue(metadata.isFound());
+			Assertions.assertEquals(Arrays.asList("1.0.0", "1.9.0", "1.10.0"), metadata.getVersions());
+			Assertions.assertThrows(IOException.class, () -> client.fetch(repositoryUri, TEST_GROUP, TEST_NAME));
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	private static void handleMetadataRequest(HttpExchange exchange, AtomicInteger fullResponses,
+			AtomicInteger notModifiedResponses) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+
+		if (!path.equals("/maven2/de/carne/test/test-artifact/maven-metadata.xml")) {
+			exchange.sendResponseHeaders(404, -1);
+		} else if (TEST_ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+			notModifiedResponses.incrementAndGet();
+			exchange.sendResponseHeaders(304, -1);
+		} else {
+			byte[] metadataBytes = TEST_METADATA.getBytes(StandardCharsets.UTF_8);
+
+			fullResponses.incrementAndGet();
+			exchange.getResponseHeaders().add("ETag", TEST_ETAG);
+			exchange.sendResponseHeaders(200, metadataBytes.length);
+			try (OutputStream responseStream = exchange.getResponseBody()) {
+				responseStream.write(metadataBytes);
+			}
+		}
+	}
+
+}
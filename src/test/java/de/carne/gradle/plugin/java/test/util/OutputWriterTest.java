@@ -18,9 +18,15 @@ package de.carne.gradle.plugin.java.test.util;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import de.carne.gradle.plugin.java.util.OutputWriter;
 
@@ -59,4 +65,25 @@ class OutputWriterTest {
 		}
 	}
 
+	@Test
+	void testUpdateFile(@TempDir Path tempDir) throws IOException {
+		Path dir = tempDir.resolve("dir");
+		Path file = dir.resolve("file.txt");
+		byte[] content = "content".getBytes(StandardCharsets.UTF_8);
+		FileTime unchangedTime = FileTime.fromMillis(0);
+
+		Assertions.assertTrue(OutputWriter.updateFile(file, content));
+		Files.setLastModifiedTime(file, unchangedTime);
+		Assertions.assertFalse(OutputWriter.updateFile(file, content));
+		Assertions.assertEquals(unchangedTime, Files.getLastModifiedTime(file));
+
+		byte[] changedContent = "changed".getBytes(StandardCharsets.UTF_8);
+
+		Assertions.assertTrue(OutputWriter.updateFile(file, changedContent));
+		Assertions.assertArrayEquals(changedContent, Files.readAllBytes(file));
+		try (Stream<Path> files = Files.list(dir)) {
+			Assertions.assertEquals(1, files.count());
+		}
+	}
+
 }
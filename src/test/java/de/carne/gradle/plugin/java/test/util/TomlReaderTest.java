@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.java.test.util;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.carne.gradle.plugin.java.util.TomlReader;
+
+/**
+ * Test {@linkplain TomlReader} class.
+ */
+class TomlReaderTest {
+
+	private static final String VERSION_CATALOG = "# Version catalog\n" //
+			+ "[versions]\n" //
+			+ "gson = \"2.8.0\" # trailing comment\n" //
+			+ "junit = { strictly = \"[5.0, 6.0[\", prefer = \"5.8.2\" }\n" //
+			+ "\n" //
+			+ "[libraries]\n" //
+			+ "gson = { module = \"com.google.code.gson:gson\", version.ref = \"gson\" }\n" //
+			+ "\"junit-api\" = { group = 'org.junit.jupiter', name = \"junit-jupiter-api\", version.ref = \"junit\" }\n"
+			+ "jdt.annotation = \"org.eclipse.jdt:org.eclipse.jdt.annotation:2.2.600\"\r\n" //
+			+ "\n" //
+			+ "[bundles]\n" //
+			+ "test = [\n" //
+			+ "  \"junit-api\", # comment\n" //
+			+ "  'gson',\n" //
+			+ "]\n";
+
+	@Test
+	void testReadVersionCatalog() throws IOException {
+		List<String> values = read(VERSION_CATALOG);
+
+		Assertions.assertEquals(Arrays.asList( //
+				"versions.gson=2.8.0", //
+				"versions.junit.strictly=[5.0, 6.0[", //
+				"versions.junit.prefer=5.8.2", //
+				"libraries.gson.module=com.google.code.gson:gson", //
+				"libraries.gson.version.ref=gson", //
+				"libraries.junit-api.group=org.junit.jupiter", //
+				"libraries.junit-api.name=junit-jupiter-api", //
+				"libraries.junit-api.version.ref=junit", //
+				"libraries.jdt.annotation=org.eclipse.jdt:org.eclipse.jdt.annotation:2.2.600", //
+				"bundles.test=junit-api", //
+				"bundles.test=gson"), values);
+	}
+
+	@Test
+	void testReadValues() throws IOException {
+		List<String> values = read("a = 1\n" //
+				+ "b = true\n" //
+				+ "c = 1979-05-27 07:32:00Z\n" //
+				+ "d = \"tab\\tquote\\\"unicode\\u00e4\"\n" //
+				+ "e = 'C:\\path'\n" //
+				+ "f = \"\"\"\nline1\nline2 \\\n   continued\"\"\"\n" //
+				+ "g = '''\"quoted\"'''\n" //
+				+ "h = \"\"\n" //
+				+ "i = {}\n" //
+				+ "j = [ [ 1, 2 ], [] ]\n" //
+				+ "[[array.table]]\n" //
+				+ "k = \"v\"\n");
+
+		Assertions.assertEquals(Arrays.asList( //
+				"a=1", //
+				"b=true", //
+				"c=1979-05-27 07:32:00Z", //
+				"d=tab\tquote\"unicode\u00e4", //
+				"e=C:\\path", //
+				"f=line1\nline2 continued", //
+				"g=\"quoted\"", //
+				"h=", //
+				"j=1", //
+				"j=2", //
+				"array.table.k=v"), values);
+	}
+
+	@Test
+	void testReadInvalid() {
+		Assertions.assertThrows(IOException.class, () -> read("a = \"unterminated\n"));
+		Assertions.assertThrows(IOException.class, () -> read("a = 1 b = 2\n"));
+		Assertions.assertThrows(IOException.class, () -> read("[table\n"));
+		Assertions.assertThrows(IOException.class, () -> read("a = { b = 1\n"));
+		Assertions.assertThrows(IOException.class, () -> read("= 1\n"));
+		Assertions.assertThrows(IOException.class, () -> read("a = \"\\q\"\n"));
+	}
+
+	private static List<String> read(String document) throws IOException {
+		List<String> values = new ArrayList<>();
+
+		new TomlReader(new StringReader(document)).read((key, value) -> values.add(String.join(".", key) + "=" + value));
+		return values;
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.test;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+/**
+ * Checks the classes generated with option cacheFormats.
+ */
+public class CacheFormatsCheck implements Runnable {
+
+	@Override
+	public void run() {
+		TestI18N.i18nArgumentsText("A", "B");
+		try {
+			Field formatsField = TestI18N.class.getDeclaredField("FORMATS");
+
+			formatsField.setAccessible(true);
+			System.out.println("cached format: "
+					+ ((Map<?, ?>) formatsField.get(null)).containsKey(TestI18N.I18N_ARGUMENTS_TEXT));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+		System.out.println("cached arguments: " + TestI18N.i18nArgumentsText("C", "D"));
+	}
+
+}
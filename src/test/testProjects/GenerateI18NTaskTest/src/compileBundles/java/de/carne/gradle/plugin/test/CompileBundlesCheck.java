@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.test;
+
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+/**
+ * Checks the classes generated with option compileBundles.
+ */
+public class CompileBundlesCheck implements Runnable {
+
+	@Override
+	public void run() {
+		ResourceBundle germanBundle = ResourceBundle.getBundle(TestI18NBundle.class.getName(), Locale.GERMAN);
+
+		System.out.println("compiled bundle: " + TestI18N.bundle().getClass().getSimpleName());
+		System.out.println("compiled bundle name: " + TestI18N.BUNDLE_NAME.equals(TestI18NBundle.class.getName()));
+		System.out.println("compiled variant: " + germanBundle.getClass().getSimpleName() + " "
+				+ germanBundle.getString(TestI18N.I18N_SIMPLE_TEXT));
+	}
+
+}
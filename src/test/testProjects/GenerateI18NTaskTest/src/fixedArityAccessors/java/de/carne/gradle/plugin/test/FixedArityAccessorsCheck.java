@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2018-2022 Holger de Carne and contributors, All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.carne.gradle.plugin.test;
+
+/**
+ * Checks the classes generated with option fixedArityAccessors.
+ */
+public class FixedArityAccessorsCheck implements Runnable {
+
+	@Override
+	public void run() {
+		// The fixed arity accessors are more specific than the variable arguments ones; hence they are called here
+		System.out.println("fixed arity string: " + TestI18N.i18nSimpleText());
+		System.out.println("fixed arity format: " + TestI18N.i18nArgumentsText("A", "B"));
+		System.out.println("fixed arity quoted: " + TestI18N.i18nQuotedText());
+	}
+
+}
@@ -14,17 +14,17 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-package de.carne.gradle.plugin.java.task;
+package de.carne.gradle.plugin.test;
 
-import org.gradle.api.Project;
-import org.gradle.api.artifacts.Configuration;
-import org.gradle.api.artifacts.ExternalDependency;
-
-class DependencyHolder extends DependencyKey {
+/**
+ * Checks the classes generated with option indexedKeys.
+ */
+public class IndexedKeysCheck implements Runnable {
 
-	DependencyHolder(Project project, Configuration configuration, ExternalDependency dependency) {
-		super(project.getName(), configuration.getName(), dependency.getGroup(), dependency.getName(),
-				dependency.getVersion());
+	@Override
+	public void run() {
+		System.out.println("indexed string: " + TestI18N.string(TestI18N.Key.I18N_SIMPLE_TEXT));
+		System.out.println("indexed format: " + TestI18N.format(TestI18N.Key.I18N_ARGUMENTS_TEXT, "A", "B"));
 	}
 
 }
@@ -16,7 +16,8 @@
  */
 package de.carne.gradle.plugin.test;
 
-import java.io.Console;
+import java.lang.reflect.Method;
+import java.util.Arrays;
 
 /**
  * Test main class.
@@ -24,10 +25,43 @@ import java.io.Console;
 public class TestMain {
 
 	/**
-	 * @param args command line arguments.
+	 * @param args the names of the option specific checks to run.
+	 * @throws ReflectiveOperationException if a check cannot be run.
 	 */
-	public static void main(String[] args) {
-		// Nothing to do here
+	public static void main(String[] args) throws ReflectiveOperationException {
+		System.out.println("simple: " + TestI18N.i18nSimpleText());
+		System.out.println("arguments: " + TestI18N.i18nArgumentsText("A", "B"));
+		System.out.println("quoted: " + TestI18N.i18nQuotedText());
+		try {
+			System.out.println("invalid: " + TestI18N.i18nInvalidText());
+		} catch (IllegalArgumentException e) {
+			System.out.println("invalid: rejected");
+		}
+		System.out.println("non-ascii: " + "Gr\u00f6\u00dfe".equals(TestI18N.i18nNonAsciiText()));
+		System.out.println("accessors: " + getAccessorCount("i18nSimpleText") + " "
+				+ getAccessorCount("i18nArgumentsText") + " " + getAccessorCount("i18nQuotedText") + " "
+				+ getAccessorCount("i18nInvalidText"));
+		System.out.println("fixed arity: " + isFixedArityAccessor("i18nArgumentsText", 2));
+		for (String check : args) {
+			Class<?> checkClass = Class.forName(TestMain.class.getPackage().getName() + "." + check);
+
+			((Runnable) checkClass.getDeclaredConstructor().newInstance()).run();
+		}
+	}
+
+	private static long getAccessorCount(String name) {
+		return Arrays.stream(TestI18N.class.getMethods()).filter(method -> method.getName().equals(name)).count();
+	}
+
+	private static boolean isFixedArityAccessor(String name, int arity) {
+		boolean fixedArity = false;
+
+		for (Method method : TestI18N.class.getMethods()) {
+			if (method.getName().equals(name) && !method.isVarArgs() && method.getParameterCount() == arity) {
+				fixedArity = true;
+			}
+		}
+		return fixedArity;
 	}
 
 }